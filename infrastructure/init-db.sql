@@ -21,10 +21,28 @@ CREATE TABLE inventory (
     product_id UUID PRIMARY KEY REFERENCES products(id),
     quantity INTEGER NOT NULL DEFAULT 0,
     reserved_quantity INTEGER NOT NULL DEFAULT 0,
+    -- Set while the stock lives in inventory_buckets; row strategies leave such rows alone
+    split BOOLEAN NOT NULL DEFAULT FALSE,
     version INTEGER NOT NULL DEFAULT 0,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
 
+-- Escrow buckets for split (hot) products; the inventory row becomes a rollup while buckets exist
+CREATE TABLE inventory_buckets (
+    product_id UUID NOT NULL REFERENCES inventory(product_id),
+    bucket INTEGER NOT NULL,
+    quantity INTEGER NOT NULL DEFAULT 0,
+    reserved_quantity INTEGER NOT NULL DEFAULT 0,
+    version INTEGER NOT NULL DEFAULT 0,
+    PRIMARY KEY (product_id, bucket)
+);
+
+-- Last reservation-ledger journal sequence persisted to the inventory table (single row)
+CREATE TABLE reservation_ledger_checkpoint (
+    id SMALLINT PRIMARY KEY,
+    last_seq BIGINT NOT NULL
+);
+
 -- Orders table with status tracking
 CREATE TABLE orders (
     id UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
@@ -93,6 +111,7 @@ CREATE TABLE idempotency_keys (
 -- Performance indexes
 CREATE INDEX idx_products_sku ON products(sku);
 CREATE INDEX idx_products_category ON products(category);
+CREATE INDEX idx_products_updated_at ON products(updated_at);
 CREATE INDEX idx_orders_customer_id ON orders(customer_id);
 CREATE INDEX idx_orders_status ON orders(status);
 CREATE INDEX idx_orders_created_at ON orders(created_at);
@@ -100,7 +119,7 @@ CREATE INDEX idx_order_items_order_id ON order_items(order_id);
 CREATE INDEX idx_order_items_product_id ON order_items(product_id);
 CREATE INDEX idx_payments_order_id ON payments(order_id);
 CREATE INDEX idx_payments_status ON payments(status);
-CREATE INDEX idx_outbox_events_processed ON outbox_events(processed_at) WHERE processed_at IS NULL;
+CREATE INDEX idx_outbox_events_unprocessed ON outbox_events(created_at) WHERE processed_at IS NULL;
 CREATE INDEX idx_saga_instances_status ON saga_instances(status);
 CREATE INDEX idx_idempotency_keys_expires ON idempotency_keys(expires_at);
 
@@ -161,6 +180,10 @@ $$ language 'plpgsql';
 CREATE TRIGGER update_products_updated_at BEFORE UPDATE ON products
     FOR EACH ROW EXECUTE FUNCTION update_updated_at_column();
 
+-- Inserts too: the known-product sync compares updated_at with the database clock, not a writer's
+CREATE TRIGGER insert_products_updated_at BEFORE INSERT ON products
+    FOR EACH ROW EXECUTE FUNCTION update_updated_at_column();
+
 CREATE TRIGGER update_inventory_updated_at BEFORE UPDATE ON inventory
     FOR EACH ROW EXECUTE FUNCTION update_updated_at_column();
 
@@ -13,10 +13,12 @@ import org.springframework.web.client.RestTemplate;
 
 import java.math.BigDecimal;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 /**
  * High-performance checkout service with SAGA orchestration.
@@ -129,28 +131,33 @@ public class CheckoutService {
 
     /**
      * Reserve inventory asynchronously for better performance.
+     * All cart lines are reserved in one call so the inventory service can do it in a single transaction.
      */
     private CompletableFuture<Boolean> reserveInventoryAsync(CheckoutRequest request, UUID checkoutId) {
         return CompletableFuture.supplyAsync(() -> {
             try {
-                for (CheckoutItem item : request.getItems()) {
-                    Map<String, Object> reservationRequest = Map.of(
+                List<Map<String, Object>> items = request.getItems().stream()
+                    .map(item -> Map.<String, Object>of(
                         "productId", item.getProductId(),
-                        "quantity", item.getQuantity(),
-                        "orderId", checkoutId
-                    );
-
-                    ResponseEntity<Map> response = restTemplate.postForEntity(
-                        inventoryServiceUrl + "/api/v1/inventory/reserve",
-                        reservationRequest,
-                        Map.class
-                    );
-
-                    if (!response.getStatusCode().is2xxSuccessful() || 
-                        !Boolean.TRUE.equals(response.getBody().get("success"))) {
-                        logger.warn("Failed to reserve inventory for product: {}", item.getProductId());
-                        return false;
-                    }
+                        "quantity", item.getQuantity()
+                    ))
+                    .collect(Collectors.toList());
+
+                Map<String, Object> reservationRequest = Map.of(
+                    "orderId", checkoutId,
+                    "items", items
+                );
+
+                ResponseEntity<Map> response = restTemplate.postForEntity(
+                    inventoryServiceUrl + "/api/v1/inventory/reserve/batch",
+                    reservationRequest,
+                    Map.class
+                );
+
+                if (!response.getStatusCode().is2xxSuccessful() || 
+                    !Boolean.TRUE.equals(response.getBody().get("success"))) {
+                    logger.warn("Failed to reserve inventory for checkout: {}", checkoutId);
+                    return false;
                 }
                 return true;
             } catch (Exception e) {
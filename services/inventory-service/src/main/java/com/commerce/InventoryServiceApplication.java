@@ -2,8 +2,11 @@ package com.commerce;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.retry.annotation.EnableRetry;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 /**
@@ -11,13 +14,17 @@ import org.springframework.transaction.annotation.EnableTransactionManagement;
  * 
  * Features:
  * - Real-time inventory tracking with Redis caching
- * - Optimistic locking for concurrent stock updates
+ * - Per-product concurrency control (optimistic, pessimistic or atomic updates)
+ * - Escrow buckets for hot SKUs
  * - Event-driven architecture with Kafka
  * - Circuit breaker pattern for resilience
  */
 @SpringBootApplication
+@ConfigurationPropertiesScan
 @EnableCaching
 @EnableKafka
+@EnableRetry
+@EnableScheduling
 @EnableTransactionManagement
 public class InventoryServiceApplication {
 
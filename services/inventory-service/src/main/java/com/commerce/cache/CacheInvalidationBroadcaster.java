@@ -0,0 +1,107 @@
+package com.commerce.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * Keeps in-process tiers ({@link TwoTierCache}s, {@link ResponseBodyCache}) consistent across instances
+ * over Redis pub/sub.
+ * Evicted Redis keys are dropped locally at once and published; other instances drop their local
+ * copies on receipt.
+ *
+ * <p>Pub/sub is fire-and-forget: an instance that misses a message serves its local entry until the
+ * local TTL expires. Messages are newline-separated lines after the sender's id, each either a Redis
+ * key ({@code <cache>::<key>}) or a bare cache name meaning "clear".
+ */
+public class CacheInvalidationBroadcaster implements MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationBroadcaster.class);
+
+    // RedisCacheConfiguration's default key prefix is "<cacheName>::"
+    static final String KEY_SEPARATOR = "::";
+
+    private final StringRedisTemplate redisTemplate;
+    private final String channel;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Map<String, List<LocalTier>> tiers = new ConcurrentHashMap<>();
+
+    public CacheInvalidationBroadcaster(StringRedisTemplate redisTemplate, String channel) {
+        this.redisTemplate = redisTemplate;
+        this.channel = channel;
+    }
+
+    void register(String cacheName, LocalTier tier) {
+        tiers.computeIfAbsent(cacheName, name -> new CopyOnWriteArrayList<>()).add(tier);
+    }
+
+    /**
+     * Drop the given Redis keys (or bare cache names) from local tiers here and on every other instance.
+     */
+    public void publish(String... entries) {
+        publish(List.of(entries));
+    }
+
+    /**
+     * Drop the given Redis keys (or bare cache names) from local tiers here and on every other instance.
+     * Entries for caches without a local tier are skipped.
+     */
+    public void publish(Collection<String> entries) {
+        StringBuilder message = new StringBuilder(instanceId);
+        for (String entry : entries) {
+            if (evictLocal(entry)) {
+                message.append('\n').append(entry);
+            }
+        }
+        if (message.length() == instanceId.length()) {
+            return;
+        }
+        try {
+            redisTemplate.convertAndSend(channel, message.toString());
+        } catch (Exception e) {
+            logger.warn("Cache invalidation broadcast failed, other instances expire entries with their local TTL: {}",
+                        e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] lines = new String(message.getBody(), StandardCharsets.UTF_8).split("\n");
+        if (lines[0].equals(instanceId)) {
+            return;
+        }
+        for (int i = 1; i < lines.length; i++) {
+            evictLocal(lines[i]);
+        }
+    }
+
+    /**
+     * @return whether the entry belongs to a cache with a local tier
+     */
+    private boolean evictLocal(String entry) {
+        int separator = entry.indexOf(KEY_SEPARATOR);
+        String cacheName = separator < 0 ? entry : entry.substring(0, separator);
+        List<LocalTier> cacheTiers = tiers.get(cacheName);
+        if (cacheTiers == null) {
+            return false;
+        }
+        for (LocalTier tier : cacheTiers) {
+            if (separator < 0) {
+                tier.clearLocal();
+            } else {
+                tier.evictLocal(entry.substring(separator + KEY_SEPARATOR.length()));
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,149 @@
+package com.commerce.cache;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+
+/**
+ * Redis value serializer for the Spring caches. In binary mode values are written as Smile (binary JSON)
+ * instead of JSON text, LZ4-compressed when the encoded value exceeds a threshold, and prefixed with one
+ * format byte:
+ * <ul>
+ *   <li>{@code 0}: Smile;</li>
+ *   <li>{@code 1}: LZ4 block of Smile, preceded by the 4-byte uncompressed length;</li>
+ *   <li>{@code 2}: Spring's cached-null marker.</li>
+ * </ul>
+ * Otherwise values are written by the JSON serializer. Both formats are always readable (JSON text never
+ * starts with those bytes), so a cache can switch format without flushing it.
+ */
+public class CacheValueSerializer implements RedisSerializer<Object> {
+
+    private static final byte SMILE = 0;
+    private static final byte SMILE_LZ4 = 1;
+    private static final byte NULL_VALUE = 2;
+
+    private final ObjectMapper smileMapper;
+    private final RedisSerializer<Object> json;
+    private final boolean binary;
+    private final int compressionThreshold;
+    private final LZ4Compressor compressor;
+    private final LZ4FastDecompressor decompressor;
+    private final DistributionSummary jsonBytes;
+    private final DistributionSummary smileBytes;
+    private final DistributionSummary compressedBytes;
+
+    /**
+     * @param smileMapper          mapper over a {@code SmileFactory}, recording value types like the JSON one
+     * @param json                 the JSON serializer
+     * @param binary               whether to write Smile rather than JSON
+     * @param compressionThreshold encoded size in bytes above which Smile values are compressed
+     */
+    public CacheValueSerializer(String cacheName, ObjectMapper smileMapper, RedisSerializer<Object> json,
+                                boolean binary, int compressionThreshold, MeterRegistry meterRegistry) {
+        this.smileMapper = smileMapper;
+        this.json = json;
+        this.binary = binary;
+        this.compressionThreshold = compressionThreshold;
+        LZ4Factory lz4 = LZ4Factory.fastestInstance();
+        this.compressor = lz4.fastCompressor();
+        this.decompressor = lz4.fastDecompressor();
+        this.jsonBytes = valueBytes(meterRegistry, cacheName, "json");
+        this.smileBytes = valueBytes(meterRegistry, cacheName, "smile");
+        this.compressedBytes = valueBytes(meterRegistry, cacheName, "smile-lz4");
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return null;
+        }
+        if (!binary) {
+            byte[] bytes = json.serialize(value);
+            jsonBytes.record(bytes.length);
+            return bytes;
+        }
+        if (value instanceof NullValue) {
+            return new byte[] {NULL_VALUE};
+        }
+
+        byte[] encoded;
+        try {
+            encoded = smileMapper.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new SerializationException("Could not write Smile: " + e.getMessage(), e);
+        }
+
+        if (encoded.length <= compressionThreshold) {
+            byte[] bytes = new byte[encoded.length + 1];
+            bytes[0] = SMILE;
+            System.arraycopy(encoded, 0, bytes, 1, encoded.length);
+            smileBytes.record(bytes.length);
+            return bytes;
+        }
+
+        byte[] bytes = new byte[5 + compressor.maxCompressedLength(encoded.length)];
+        bytes[0] = SMILE_LZ4;
+        writeInt(bytes, 1, encoded.length);
+        int length = 5 + compressor.compress(encoded, 0, encoded.length, bytes, 5, bytes.length - 5);
+        compressedBytes.record(length);
+        return Arrays.copyOf(bytes, length);
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        try {
+            switch (bytes[0]) {
+                case SMILE:
+                    return smileMapper.readValue(bytes, 1, bytes.length - 1, Object.class);
+                case SMILE_LZ4:
+                    byte[] encoded = new byte[readInt(bytes, 1)];
+                    decompressor.decompress(bytes, 5, encoded, 0, encoded.length);
+                    return smileMapper.readValue(encoded, Object.class);
+                case NULL_VALUE:
+                    return NullValue.INSTANCE;
+                default:
+                    return json.deserialize(bytes);
+            }
+        } catch (IOException | RuntimeException e) {
+            if (e instanceof SerializationException serializationException) {
+                throw serializationException;
+            }
+            throw new SerializationException("Could not read cached value: " + e.getMessage(), e);
+        }
+    }
+
+    private static void writeInt(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+
+    private static int readInt(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xFF) << 24 | (bytes[offset + 1] & 0xFF) << 16
+                | (bytes[offset + 2] & 0xFF) << 8 | (bytes[offset + 3] & 0xFF);
+    }
+
+    private static DistributionSummary valueBytes(MeterRegistry meterRegistry, String cacheName, String format) {
+        return DistributionSummary.builder("inventory.cache.value.bytes")
+                .description("Size of values written to Redis")
+                .baseUnit("bytes")
+                .tag("cache", cacheName)
+                .tag("format", format)
+                .register(meterRegistry);
+    }
+}
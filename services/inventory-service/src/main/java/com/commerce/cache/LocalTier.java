@@ -0,0 +1,18 @@
+package com.commerce.cache;
+
+/**
+ * An in-process copy of a shared cache's entries (or of something derived from them) that
+ * {@link CacheInvalidationBroadcaster} keeps consistent across instances.
+ */
+interface LocalTier {
+
+    /**
+     * Drop the local copy of one entry; {@code key} is the cache key's string form.
+     */
+    void evictLocal(String key);
+
+    /**
+     * Drop every local copy.
+     */
+    void clearLocal();
+}
@@ -0,0 +1,206 @@
+package com.commerce.cache;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Applies a refresh policy on top of single-flight loading. Entries carry their load time
+ * ({@link TimedValue}); on a {@code get(key, loader)}:
+ * <ul>
+ *   <li>younger than {@code refreshAhead * ttl}: served as is;</li>
+ *   <li>older, but within the TTL: served, and reloaded in the background (refresh-ahead);</li>
+ *   <li>past the TTL but within the stale window: served stale, and reloaded in the background;</li>
+ *   <li>otherwise: loaded synchronously.</li>
+ * </ul>
+ * The background reload runs the caller's loader on the shared bounded executor, in a read-only
+ * transaction. With a stale window, {@link #evict(Object)} marks the entry stale instead of deleting it,
+ * so invalidation never leaves readers with a cold miss. The mark is a small side key
+ * ({@code <cache>::<key>::stale}) holding the invalidation time; an entry written before it counts as
+ * expired at that moment. The entry itself is never rewritten, so marking a large value stale costs one
+ * SET and cannot overwrite a fresher value stored concurrently. Each read also GETs the mark.
+ *
+ * <p>A completed reload is broadcast like an eviction, so local copies built from the previous
+ * (possibly stale) value, such as cached response bodies, are dropped on every instance.
+ */
+public class RefreshingCache extends SingleFlightCache {
+
+    private static final String STALE_SUFFIX = "::stale";
+
+    private final long ttlMillis;
+    private final long refreshAtMillis;
+    private final long staleMillis;
+    private final Executor refreshExecutor;
+    private final TransactionTemplate refreshTransaction;
+    private final CacheInvalidationBroadcaster broadcaster;
+    private final StringRedisTemplate redisTemplate;
+    private final Duration markTimeToLive;
+    private final Counter refreshesStarted;
+    private final Counter staleServed;
+
+    public RefreshingCache(Cache delegate, Duration loadTimeout, MeterRegistry meterRegistry,
+                           Duration ttl, double refreshAhead, Duration staleWhileRevalidate,
+                           Executor refreshExecutor, TransactionTemplate refreshTransaction,
+                           CacheInvalidationBroadcaster broadcaster, StringRedisTemplate redisTemplate) {
+        super(delegate, loadTimeout, meterRegistry);
+        this.ttlMillis = ttl.toMillis();
+        this.refreshAtMillis = refreshAhead > 0 && refreshAhead < 1 ? (long) (ttlMillis * refreshAhead) : ttlMillis;
+        this.staleMillis = staleWhileRevalidate.toMillis();
+        this.refreshExecutor = refreshExecutor;
+        this.refreshTransaction = refreshTransaction;
+        this.broadcaster = broadcaster;
+        this.redisTemplate = redisTemplate;
+        // Outlives every entry written before the mark; Redis keeps entries for ttl + stale window
+        this.markTimeToLive = ttl.plus(staleWhileRevalidate);
+        this.refreshesStarted = Counter.builder("inventory.cache.refreshes")
+                .description("Background reloads started by refresh-ahead or stale-while-revalidate")
+                .tag("cache", delegate.getName())
+                .register(meterRegistry);
+        this.staleServed = Counter.builder("inventory.cache.stale.served")
+                .description("Reads answered with an entry past its TTL while it was reloaded")
+                .tag("cache", delegate.getName())
+                .register(meterRegistry);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper cached = getDelegate().get(key);
+        if (cached == null || !(cached.get() instanceof TimedValue timed)) {
+            // Entries written before the policy applied carry no load time
+            return cached != null ? (T) cached.get() : load(key, valueLoader);
+        }
+
+        long age = ageOf(key, timed);
+        if (age < refreshAtMillis) {
+            return (T) timed.getValue();
+        }
+        if (age < ttlMillis + staleMillis) {
+            if (age >= ttlMillis) {
+                staleServed.increment();
+            }
+            if (loadInBackground(key, inTransaction(valueLoader), refreshExecutor)) {
+                refreshesStarted.increment();
+            }
+            return (T) timed.getValue();
+        }
+        return load(key, valueLoader);
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper cached = getDelegate().get(key);
+        if (cached == null || !(cached.get() instanceof TimedValue timed)) {
+            return cached;
+        }
+        return ageOf(key, timed) < ttlMillis + staleMillis ? new SimpleValueWrapper(timed.getValue()) : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper cached = get(key);
+        Object value = cached != null ? cached.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (value == null) {
+            // Left to the delegate's null handling
+            super.put(key, null);
+            return;
+        }
+        getDelegate().put(key, new TimedValue(value, System.currentTimeMillis()));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = getDelegate().putIfAbsent(key, new TimedValue(value, System.currentTimeMillis()));
+        if (existing != null && existing.get() instanceof TimedValue timed) {
+            return new SimpleValueWrapper(timed.getValue());
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        if (staleMillis == 0) {
+            super.evict(key);
+            return;
+        }
+        // Expired as of now: still served for the stale window while the next read reloads it
+        redisTemplate.opsForValue().set(markKey(key), Long.toString(System.currentTimeMillis()), markTimeToLive);
+    }
+
+    /**
+     * Whether {@link #evict(Object)} marks entries stale rather than deleting them.
+     */
+    public boolean servesStale() {
+        return staleMillis > 0;
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        evict(key);
+        return false;
+    }
+
+    @Override
+    protected void backgroundLoadCompleted(Object key) {
+        broadcaster.publish(getName() + CacheInvalidationBroadcaster.KEY_SEPARATOR + key);
+    }
+
+    /**
+     * Age of the entry, or the age it would have had if it expired when it was last marked stale.
+     */
+    private long ageOf(Object key, TimedValue timed) {
+        long now = System.currentTimeMillis();
+        long age = now - timed.getWrittenAt();
+        long markedAt = markedAt(key);
+        if (markedAt >= timed.getWrittenAt()) {
+            return Math.max(age, ttlMillis + (now - markedAt));
+        }
+        return age;
+    }
+
+    private long markedAt(Object key) {
+        if (staleMillis == 0) {
+            return Long.MIN_VALUE;
+        }
+        try {
+            String mark = redisTemplate.opsForValue().get(markKey(key));
+            return mark != null ? Long.parseLong(mark) : Long.MIN_VALUE;
+        } catch (RuntimeException e) {
+            // The entry's own TTL still applies
+            return Long.MIN_VALUE;
+        }
+    }
+
+    private String markKey(Object key) {
+        return getName() + CacheInvalidationBroadcaster.KEY_SEPARATOR + key + STALE_SUFFIX;
+    }
+
+    private Callable<Object> inTransaction(Callable<?> valueLoader) {
+        return () -> refreshTransaction.execute(status -> {
+            try {
+                return valueLoader.call();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+}
@@ -0,0 +1,162 @@
+package com.commerce.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Encoded HTTP response bodies for hot read endpoints, so a hit is written out as stored bytes with no
+ * Redis round trip, deserialization or Jackson pass. Each body carries a strong ETag (a hash of the JSON)
+ * and, above a size threshold, a pre-gzipped copy.
+ *
+ * <p>Bodies are keyed by the Spring cache entry they are built from ({@code <cache>::<key>}) and registered
+ * with the {@link CacheInvalidationBroadcaster} under those caches, so whatever evicts the entry, here or
+ * on another instance, drops the body too. A body built while its entry was being invalidated is not
+ * stored. The TTL bounds staleness if an invalidation message is lost.
+ */
+public class ResponseBodyCache {
+
+    /**
+     * A cached body. {@code gzip} is null when compression was not worth it.
+     */
+    public record Body(byte[] json, byte[] gzip, String etag, String gzipEtag) {
+
+        public boolean matches(String ifNoneMatch) {
+            return ifNoneMatch != null
+                    && (ifNoneMatch.equals("*") || ifNoneMatch.contains(etag) || (gzipEtag != null && ifNoneMatch.contains(gzipEtag)));
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+    private final int gzipMinSize;
+    private final Cache<String, Body> bodies;
+    // Bumped by every invalidation; a body is only stored if none happened while it was built
+    private final AtomicLong generation = new AtomicLong();
+    private final Counter hits;
+    private final Counter misses;
+
+    public ResponseBodyCache(ObjectMapper objectMapper, long maximumBytes, Duration timeToLive, int gzipMinSize,
+                             CacheInvalidationBroadcaster broadcaster, MeterRegistry meterRegistry, String... cacheNames) {
+        this.objectMapper = objectMapper;
+        this.gzipMinSize = gzipMinSize;
+        this.bodies = Caffeine.newBuilder()
+                .maximumWeight(maximumBytes)
+                .weigher((String key, Body body) -> body.json().length + (body.gzip() != null ? body.gzip().length : 0))
+                .expireAfterWrite(timeToLive)
+                .build();
+        this.hits = requests(meterRegistry, "hit");
+        this.misses = requests(meterRegistry, "miss");
+        for (String cacheName : cacheNames) {
+            broadcaster.register(cacheName, new Namespace(cacheName));
+        }
+    }
+
+    /**
+     * The cached body of the entry, building and storing it on a miss.
+     *
+     * @param cacheName the Spring cache the body is built from
+     * @param key       the key in that cache
+     * @param value     loads the value to encode; may return null, which is not cached
+     * @return the body, or null when the value was null
+     */
+    public Body get(String cacheName, Object key, Supplier<?> value) {
+        String bodyKey = cacheName + CacheInvalidationBroadcaster.KEY_SEPARATOR + key;
+        Body body = bodies.getIfPresent(bodyKey);
+        if (body != null) {
+            hits.increment();
+            return body;
+        }
+        misses.increment();
+
+        long startGeneration = generation.get();
+        Object loaded = value.get();
+        if (loaded == null) {
+            return null;
+        }
+        body = encode(loaded);
+        if (generation.get() == startGeneration) {
+            bodies.put(bodyKey, body);
+        }
+        return body;
+    }
+
+    private Body encode(Object value) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not encode response body", e);
+        }
+        String etag = etagOf(json);
+
+        byte[] gzip = null;
+        if (json.length >= gzipMinSize) {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(json.length / 4);
+            try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+                out.write(json);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (buffer.size() < json.length) {
+                gzip = buffer.toByteArray();
+            }
+        }
+        // A different representation needs a different strong validator
+        return new Body(json, gzip, etag, gzip != null ? etag.substring(0, etag.length() - 1) + "-gz\"" : null);
+    }
+
+    private static String etagOf(byte[] json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest).substring(0, 22) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("inventory.response.cache.requests")
+                .description("Response body cache lookups")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * The bodies built from one Spring cache.
+     */
+    private final class Namespace implements LocalTier {
+
+        private final String prefix;
+
+        Namespace(String cacheName) {
+            this.prefix = cacheName + CacheInvalidationBroadcaster.KEY_SEPARATOR;
+        }
+
+        @Override
+        public void evictLocal(String key) {
+            generation.incrementAndGet();
+            bodies.invalidate(prefix + key);
+        }
+
+        @Override
+        public void clearLocal() {
+            generation.incrementAndGet();
+            bodies.asMap().keySet().removeIf(bodyKey -> bodyKey.startsWith(prefix));
+        }
+    }
+}
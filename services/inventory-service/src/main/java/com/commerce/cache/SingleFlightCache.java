@@ -0,0 +1,209 @@
+package com.commerce.cache;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Coalesces concurrent misses on the same key: the first caller runs the loader, later callers
+ * wait on its future instead of querying the database again. Used by {@code @Cacheable(sync = true)}.
+ * Only callers in this instance are coalesced.
+ *
+ * <p>Waiters give up after the timeout. A failed load fails every waiter with the same exception
+ * and nothing is cached. Other operations pass straight to the wrapped cache.
+ */
+public class SingleFlightCache implements Cache {
+
+    private static final Logger logger = LoggerFactory.getLogger(SingleFlightCache.class);
+
+    private final Cache delegate;
+    private final long timeoutMillis;
+    private final ConcurrentHashMap<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Counter executed;
+    private final Counter coalesced;
+    private final Counter failed;
+    private final Counter timedOut;
+
+    public SingleFlightCache(Cache delegate, Duration timeout, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.timeoutMillis = timeout.toMillis();
+        this.executed = loadCounter(meterRegistry, delegate.getName(), "executed");
+        this.coalesced = loadCounter(meterRegistry, delegate.getName(), "coalesced");
+        this.failed = loadCounter(meterRegistry, delegate.getName(), "failed");
+        this.timedOut = loadCounter(meterRegistry, delegate.getName(), "timeout");
+    }
+
+    public Cache getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper cached = get(key);
+        if (cached != null) {
+            return (T) cached.get();
+        }
+        return load(key, valueLoader);
+    }
+
+    /**
+     * Load the key, or wait for a load of it already running.
+     */
+    @SuppressWarnings("unchecked")
+    protected <T> T load(Object key, Callable<T> valueLoader) {
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, load);
+        if (running != null) {
+            coalesced.increment();
+            return (T) await(key, valueLoader, running);
+        }
+
+        // A load may have finished between the caller's miss and registering this one
+        ValueWrapper cached = get(key);
+        if (cached != null) {
+            load.complete(cached.get());
+            inFlight.remove(key, load);
+            return (T) cached.get();
+        }
+        return runLoad(key, valueLoader, load);
+    }
+
+    /**
+     * Reload the key on the executor unless a load of it is already running.
+     * Callers keep being served the current entry meanwhile.
+     *
+     * @return whether a load was started
+     */
+    protected boolean loadInBackground(Object key, Callable<?> valueLoader, Executor executor) {
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(key, load) != null) {
+            return false;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    runLoad(key, valueLoader, load);
+                    backgroundLoadCompleted(key);
+                } catch (RuntimeException e) {
+                    logger.warn("Background load failed for cache: {}, key: {}: {}", getName(), key, e.getMessage());
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            load.completeExceptionally(e);
+            inFlight.remove(key, load);
+            return false;
+        }
+    }
+
+    /**
+     * Called after a background load has stored its value.
+     */
+    protected void backgroundLoadCompleted(Object key) {
+    }
+
+    private <T> T runLoad(Object key, Callable<T> valueLoader, CompletableFuture<Object> load) {
+        try {
+            T value = valueLoader.call();
+            executed.increment();
+            put(key, value);
+            load.complete(value);
+            return value;
+        } catch (Exception e) {
+            failed.increment();
+            load.completeExceptionally(e);
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } finally {
+            if (!load.isDone()) {
+                load.completeExceptionally(new IllegalStateException("Cache load aborted for key: " + key));
+            }
+            inFlight.remove(key, load);
+        }
+    }
+
+    private Object await(Object key, Callable<?> valueLoader, CompletableFuture<Object> running) {
+        try {
+            return running.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw new ValueRetrievalException(key, valueLoader, e.getCause());
+        } catch (TimeoutException e) {
+            timedOut.increment();
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return delegate.get(key);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return delegate.get(key, type);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return delegate.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return delegate.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        return delegate.invalidate();
+    }
+
+    private static Counter loadCounter(MeterRegistry meterRegistry, String cacheName, String result) {
+        return Counter.builder("inventory.cache.loads")
+                .description("Cache misses by outcome: executed loads, callers coalesced onto a running load, failures and wait timeouts")
+                .tag("cache", cacheName)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,312 @@
+package com.commerce.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bidirectional SKU to product ID map held in primitive arrays. Product IDs are stored as two longs,
+ * SKUs as UTF-8 bytes in one shared arena, and both directions are open-addressing (linear probing)
+ * tables of entry numbers, so the index holds a handful of arrays rather than a few objects per product.
+ *
+ * <p>Removed and renamed entries leave garbage behind until the next rehash, which compacts the
+ * entries and the arena. Reads share a read lock; writes are rare (product saves) and take the write lock.
+ */
+public class SkuIndex {
+
+    private static final int EMPTY = 0;
+    private static final int TOMBSTONE = -1;
+    private static final int DEAD = -1;
+    private static final double MAX_LOAD = 0.75;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Entries, in insertion order
+    private long[] idHigh;
+    private long[] idLow;
+    private int[] skuHash;
+    private int[] skuOffset;
+    // UTF-8 length of the SKU, or DEAD
+    private short[] skuLength;
+    private byte[] skuBytes;
+    private int entries;
+    private int arenaUsed;
+    private int live;
+
+    // Entry number + 1, EMPTY or TOMBSTONE
+    private int[] bySku;
+    private int[] byId;
+    private int tombstones;
+
+    public SkuIndex(int expectedSize) {
+        int capacity = Math.max(16, expectedSize);
+        idHigh = new long[capacity];
+        idLow = new long[capacity];
+        skuHash = new int[capacity];
+        skuOffset = new int[capacity];
+        skuLength = new short[capacity];
+        skuBytes = new byte[capacity * 12];
+        int tableSize = tableSizeFor(capacity);
+        bySku = new int[tableSize];
+        byId = new int[tableSize];
+    }
+
+    /**
+     * Map the product to its SKU, replacing its previous SKU and any other product holding this one.
+     */
+    public void put(UUID productId, String sku) {
+        byte[] bytes = sku.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("SKU too long: " + bytes.length + " bytes");
+        }
+        long high = productId.getMostSignificantBits();
+        long low = productId.getLeastSignificantBits();
+        int hash = hash(bytes);
+
+        lock.writeLock().lock();
+        try {
+            int existing = findById(high, low);
+            if (existing >= 0) {
+                if (skuHash[existing] == hash && skuEquals(existing, bytes)) {
+                    return;
+                }
+                removeEntry(existing);
+            }
+            int holder = findBySku(bytes, hash);
+            if (holder >= 0) {
+                removeEntry(holder);
+            }
+            if (live + tombstones + 1 > bySku.length * MAX_LOAD || entries == idHigh.length) {
+                rehash();
+            }
+            append(high, low, bytes, hash);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(UUID productId) {
+        lock.writeLock().lock();
+        try {
+            int entry = findById(productId.getMostSignificantBits(), productId.getLeastSignificantBits());
+            if (entry >= 0) {
+                removeEntry(entry);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Product ID of the SKU, or null when it is not indexed.
+     */
+    public UUID productIdOf(String sku) {
+        byte[] bytes = sku.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(bytes);
+        lock.readLock().lock();
+        try {
+            int entry = findBySku(bytes, hash);
+            return entry >= 0 ? new UUID(idHigh[entry], idLow[entry]) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * SKU of the product, or null when it is not indexed.
+     */
+    public String skuOf(UUID productId) {
+        lock.readLock().lock();
+        try {
+            int entry = findById(productId.getMostSignificantBits(), productId.getLeastSignificantBits());
+            return entry >= 0 ? new String(skuBytes, skuOffset[entry], skuLength[entry], StandardCharsets.UTF_8) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return live;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Bytes held by the index's arrays, including headers and unused capacity.
+     */
+    public long memoryBytes() {
+        lock.readLock().lock();
+        try {
+            return arrayBytes(idHigh.length, 8) + arrayBytes(idLow.length, 8)
+                    + arrayBytes(skuHash.length, 4) + arrayBytes(skuOffset.length, 4)
+                    + arrayBytes(skuLength.length, 2) + arrayBytes(skuBytes.length, 1)
+                    + arrayBytes(bySku.length, 4) + arrayBytes(byId.length, 4);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void append(long high, long low, byte[] bytes, int hash) {
+        if (arenaUsed + bytes.length > skuBytes.length) {
+            skuBytes = Arrays.copyOf(skuBytes, Math.max(skuBytes.length + (skuBytes.length >> 1), arenaUsed + bytes.length));
+        }
+        int entry = entries++;
+        idHigh[entry] = high;
+        idLow[entry] = low;
+        skuHash[entry] = hash;
+        skuOffset[entry] = arenaUsed;
+        skuLength[entry] = (short) bytes.length;
+        System.arraycopy(bytes, 0, skuBytes, arenaUsed, bytes.length);
+        arenaUsed += bytes.length;
+        live++;
+        insert(bySku, hash, entry);
+        insert(byId, idHash(high, low), entry);
+    }
+
+    private void removeEntry(int entry) {
+        bySku[slotOf(bySku, skuHash[entry], entry)] = TOMBSTONE;
+        byId[slotOf(byId, idHash(idHigh[entry], idLow[entry]), entry)] = TOMBSTONE;
+        skuLength[entry] = DEAD;
+        tombstones++;
+        live--;
+    }
+
+    /**
+     * Rebuild the tables from the live entries, compacting the entries and the arena, and grow if needed.
+     */
+    private void rehash() {
+        int capacity = Math.max(16, (live + 1) * 3 / 2);
+        long[] newHigh = new long[capacity];
+        long[] newLow = new long[capacity];
+        int[] newHash = new int[capacity];
+        int[] newOffset = new int[capacity];
+        short[] newLength = new short[capacity];
+        byte[] newBytes = new byte[Math.max(16, arenaUsed + (arenaUsed >> 1))];
+        int tableSize = tableSizeFor(capacity);
+        int[] newBySku = new int[tableSize];
+        int[] newById = new int[tableSize];
+
+        int count = 0;
+        int used = 0;
+        for (int entry = 0; entry < entries; entry++) {
+            int length = skuLength[entry];
+            if (length == DEAD) {
+                continue;
+            }
+            newHigh[count] = idHigh[entry];
+            newLow[count] = idLow[entry];
+            newHash[count] = skuHash[entry];
+            newOffset[count] = used;
+            newLength[count] = (short) length;
+            System.arraycopy(skuBytes, skuOffset[entry], newBytes, used, length);
+            used += length;
+            insert(newBySku, newHash[count], count);
+            insert(newById, idHash(newHigh[count], newLow[count]), count);
+            count++;
+        }
+
+        idHigh = newHigh;
+        idLow = newLow;
+        skuHash = newHash;
+        skuOffset = newOffset;
+        skuLength = newLength;
+        skuBytes = newBytes;
+        bySku = newBySku;
+        byId = newById;
+        entries = count;
+        arenaUsed = used;
+        tombstones = 0;
+    }
+
+    private int findBySku(byte[] bytes, int hash) {
+        int mask = bySku.length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int value = bySku[slot];
+            if (value == EMPTY) {
+                return -1;
+            }
+            if (value != TOMBSTONE) {
+                int entry = value - 1;
+                if (skuHash[entry] == hash && skuEquals(entry, bytes)) {
+                    return entry;
+                }
+            }
+        }
+    }
+
+    private int findById(long high, long low) {
+        int mask = byId.length - 1;
+        for (int slot = idHash(high, low) & mask; ; slot = (slot + 1) & mask) {
+            int value = byId[slot];
+            if (value == EMPTY) {
+                return -1;
+            }
+            if (value != TOMBSTONE && idHigh[value - 1] == high && idLow[value - 1] == low) {
+                return value - 1;
+            }
+        }
+    }
+
+    private boolean skuEquals(int entry, byte[] bytes) {
+        int offset = skuOffset[entry];
+        return skuLength[entry] == bytes.length
+                && Arrays.equals(skuBytes, offset, offset + bytes.length, bytes, 0, bytes.length);
+    }
+
+    private static int slotOf(int[] table, int hash, int entry) {
+        int mask = table.length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            if (table[slot] == entry + 1) {
+                return slot;
+            }
+        }
+    }
+
+    private static void insert(int[] table, int hash, int entry) {
+        int mask = table.length - 1;
+        int slot = hash & mask;
+        while (table[slot] > 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = entry + 1;
+    }
+
+    private static int tableSizeFor(int capacity) {
+        int needed = (int) Math.ceil(capacity / MAX_LOAD) + 1;
+        return Integer.highestOneBit(needed - 1) << 1;
+    }
+
+    private static long arrayBytes(int length, int elementSize) {
+        // 16-byte header, padded to 8 bytes
+        return (16 + (long) length * elementSize + 7) & ~7L;
+    }
+
+    // 32-bit FNV-1a, then the MurmurHash3 finalizer so linear probing sees well-spread low bits
+    private static int hash(byte[] bytes) {
+        int hash = 0x811C9DC5;
+        for (byte b : bytes) {
+            hash ^= b & 0xFF;
+            hash *= 0x01000193;
+        }
+        return mix(hash);
+    }
+
+    private static int idHash(long high, long low) {
+        long value = high ^ (low * 0x9E3779B97F4A7C15L);
+        return mix((int) (value ^ (value >>> 32)));
+    }
+
+    private static int mix(int value) {
+        value ^= value >>> 16;
+        value *= 0x85EBCA6B;
+        value ^= value >>> 13;
+        value *= 0xC2B2AE35;
+        value ^= value >>> 16;
+        return value;
+    }
+}
@@ -0,0 +1,36 @@
+package com.commerce.cache;
+
+/**
+ * A cached value with the time it was loaded, so {@link RefreshingCache} can tell fresh, due-for-refresh
+ * and stale entries apart. Not final: the Redis serializer only records the class of non-final types.
+ */
+public class TimedValue {
+
+    private Object value;
+    private long writtenAt;
+
+    // Constructors
+    public TimedValue() {}
+
+    public TimedValue(Object value, long writtenAt) {
+        this.value = value;
+        this.writtenAt = writtenAt;
+    }
+
+    // Getters and Setters
+    public Object getValue() {
+        return value;
+    }
+
+    public void setValue(Object value) {
+        this.value = value;
+    }
+
+    public long getWrittenAt() {
+        return writtenAt;
+    }
+
+    public void setWrittenAt(long writtenAt) {
+        this.writtenAt = writtenAt;
+    }
+}
@@ -0,0 +1,145 @@
+package com.commerce.cache;
+
+import java.util.concurrent.Callable;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+/**
+ * A bounded in-process cache in front of a shared Redis cache. Reads check the heap first and fill it
+ * from Redis; writes and evictions go to both tiers. Local entries expire after a short TTL, which
+ * bounds staleness if an invalidation message from another instance is lost.
+ *
+ * <p>Local keys are the string form of the cache key, the same text Redis keys end with, so
+ * invalidations can be matched from Redis key names. Cached values are shared between callers and
+ * must be treated as read-only. Null values are only cached remotely.
+ */
+public class TwoTierCache implements Cache, LocalTier {
+
+    private final Cache remote;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> local;
+    private final CacheInvalidationBroadcaster broadcaster;
+
+    public TwoTierCache(Cache remote, com.github.benmanes.caffeine.cache.Cache<String, Object> local,
+                        CacheInvalidationBroadcaster broadcaster) {
+        this.remote = remote;
+        this.local = local;
+        this.broadcaster = broadcaster;
+    }
+
+    @Override
+    public String getName() {
+        return remote.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remote.getNativeCache();
+    }
+
+    public Cache getRemoteCache() {
+        return remote;
+    }
+
+    public com.github.benmanes.caffeine.cache.Cache<String, Object> getLocalCache() {
+        return local;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        Object value = local.getIfPresent(localKey(key));
+        if (value != null) {
+            return new SimpleValueWrapper(value);
+        }
+        ValueWrapper wrapper = remote.get(key);
+        if (wrapper != null && wrapper.get() != null) {
+            local.put(localKey(key), wrapper.get());
+        }
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Object value = local.getIfPresent(localKey(key));
+        if (value != null) {
+            return (T) value;
+        }
+        ValueWrapper wrapper = remote.get(key);
+        if (wrapper != null) {
+            if (wrapper.get() != null) {
+                local.put(localKey(key), wrapper.get());
+            }
+            return (T) wrapper.get();
+        }
+        // Concurrent misses are coalesced by SingleFlightCache in front of this cache
+        T loaded;
+        try {
+            loaded = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        put(key, loaded);
+        return loaded;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remote.put(key, value);
+        if (value != null) {
+            local.put(localKey(key), value);
+        } else {
+            local.invalidate(localKey(key));
+        }
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        // The remote tier decides which value wins; the next local read picks it up
+        local.invalidate(localKey(key));
+        return remote.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        remote.evict(key);
+        broadcaster.publish(getName() + CacheInvalidationBroadcaster.KEY_SEPARATOR + localKey(key));
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        broadcaster.publish(getName());
+    }
+
+    /**
+     * Drop a local entry only, for invalidations whose remote entry is already gone.
+     */
+    @Override
+    public void evictLocal(String key) {
+        local.invalidate(key);
+    }
+
+    /**
+     * Drop every local entry only.
+     */
+    @Override
+    public void clearLocal() {
+        local.invalidateAll();
+    }
+
+    private static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+}
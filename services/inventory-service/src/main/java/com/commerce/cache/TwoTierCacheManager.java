@@ -0,0 +1,77 @@
+package com.commerce.cache;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Wraps a Redis cache manager, putting a Caffeine tier in front of the configured caches.
+ * Caffeine's W-TinyLFU admission keeps hot entries resident under the size bound while one-off
+ * lookups are rejected. Every cache is fronted by a {@link SingleFlightCache} (or a {@link RefreshingCache},
+ * for caches with a refresh policy) built by the given factory.
+ */
+public class TwoTierCacheManager implements CacheManager {
+
+    private final CacheManager remote;
+    private final Set<String> nearCacheNames;
+    private final long maximumSize;
+    private final Map<String, Long> maximumSizes;
+    private final Duration timeToLive;
+    private final CacheInvalidationBroadcaster broadcaster;
+    private final Function<Cache, SingleFlightCache> loadingCacheFactory;
+    private final Map<String, Cache> caches = new ConcurrentHashMap<>();
+
+    /**
+     * @param maximumSizes per-cache overrides of the near tier's {@code maximumSize}
+     */
+    public TwoTierCacheManager(CacheManager remote, Set<String> nearCacheNames, long maximumSize,
+                               Map<String, Long> maximumSizes, Duration timeToLive,
+                               CacheInvalidationBroadcaster broadcaster,
+                               Function<Cache, SingleFlightCache> loadingCacheFactory) {
+        this.remote = remote;
+        this.nearCacheNames = nearCacheNames;
+        this.maximumSize = maximumSize;
+        this.maximumSizes = maximumSizes;
+        this.timeToLive = timeToLive;
+        this.broadcaster = broadcaster;
+        this.loadingCacheFactory = loadingCacheFactory;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache remoteCache = remote.getCache(name);
+        if (remoteCache == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, cacheName -> {
+            Cache target = remoteCache;
+            if (nearCacheNames.contains(cacheName)) {
+                TwoTierCache twoTier = new TwoTierCache(remoteCache, Caffeine.newBuilder()
+                        .maximumSize(maximumSizes.getOrDefault(cacheName, maximumSize))
+                        .expireAfterWrite(timeToLive)
+                        .recordStats()
+                        .build(), broadcaster);
+                broadcaster.register(cacheName, twoTier);
+                target = twoTier;
+            }
+            return loadingCacheFactory.apply(target);
+        });
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return remote.getCacheNames();
+    }
+}
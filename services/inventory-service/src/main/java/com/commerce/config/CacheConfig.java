@@ -1,15 +1,53 @@
 package com.commerce.config;
 
+import com.commerce.cache.CacheInvalidationBroadcaster;
+import com.commerce.cache.CacheValueSerializer;
+import com.commerce.cache.RefreshingCache;
+import com.commerce.cache.ResponseBodyCache;
+import com.commerce.cache.SingleFlightCache;
+import com.commerce.cache.TwoTierCache;
+import com.commerce.cache.TwoTierCacheManager;
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.boot.actuate.metrics.cache.RedisCacheMetrics;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.support.NullValue;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.RedisCache;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
 
@@ -17,15 +55,198 @@ import static org.springframework.data.redis.serializer.RedisSerializationContex
 @EnableCaching
 public class CacheConfig {
 
+    public static final String INVENTORY_CACHE = "inventory";
+    public static final String STOCK_LEVEL_CACHE = "stock-level";
+    public static final String PRODUCTS_CACHE = "products";
+
+    // Declaring our own cache manager bypasses spring.cache.*, so apply it here
+    @Value("${spring.cache.redis.time-to-live:300000}")
+    private long timeToLiveMs;
+
+    @Value("${spring.cache.redis.enable-statistics:false}")
+    private boolean enableStatistics;
+
+    @Value("${spring.cache.cache-names:}")
+    private List<String> cacheNames;
+
+    // In-process tier in front of Redis; an empty list turns it off
+    @Value("${commerce.inventory.cache.near.caches:inventory}")
+    private List<String> nearCacheNames;
+
+    @Value("${commerce.inventory.cache.near.maximum-size:10000}")
+    private long nearMaximumSize;
+
+    @Value("${commerce.inventory.cache.near.ttl:5s}")
+    private Duration nearTimeToLive;
+
+    @Value("${commerce.inventory.cache.near.invalidation-channel:inventory-cache-invalidation}")
+    private String invalidationChannel;
+
+    // Encoded bodies of GET /products and /products/{id} (and /sku/{sku})
+    @Value("${commerce.inventory.cache.responses.maximum-bytes:67108864}")
+    private long responseMaximumBytes;
+
+    @Value("${commerce.inventory.cache.responses.ttl:60s}")
+    private Duration responseTimeToLive;
+
+    @Value("${commerce.inventory.cache.responses.gzip-min-size:1024}")
+    private int responseGzipMinSize;
+
+    // How long callers wait on another caller's load of the same key
+    @Value("${commerce.inventory.cache.single-flight.timeout:2s}")
+    private Duration loadTimeout;
+
     @Bean
     public RedisCacheConfiguration redisCacheConfiguration() {
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.registerModule(new JavaTimeModule());
-        mapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
-
         return RedisCacheConfiguration
                 .defaultCacheConfig()
+                .entryTtl(Duration.ofMillis(timeToLiveMs))
                 // key serializer stays default (String)
-                .serializeValuesWith(SerializationPair.fromSerializer(new GenericJackson2JsonRedisSerializer(mapper)));
+                .serializeValuesWith(SerializationPair.fromSerializer(jsonSerializer()));
+    }
+
+    /**
+     * JSON text serializer for cached values.
+     */
+    public static GenericJackson2JsonRedisSerializer jsonSerializer() {
+        return new GenericJackson2JsonRedisSerializer(cacheObjectMapper(new ObjectMapper()));
+    }
+
+    /**
+     * Smile mapper for cached values; the 4-byte Smile header is left out, the format byte identifies values.
+     */
+    public static ObjectMapper smileMapper() {
+        return cacheObjectMapper(new ObjectMapper(SmileFactory.builder()
+                .disable(SmileGenerator.Feature.WRITE_HEADER)
+                .build()));
+    }
+
+    private static ObjectMapper cacheObjectMapper(ObjectMapper mapper) {
+        mapper.registerModule(new JavaTimeModule());
+        mapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
+        // Record the value's class, or cached InventoryResponses come back as LinkedHashMaps
+        mapper.activateDefaultTyping(
+                BasicPolymorphicTypeValidator.builder()
+                        .allowIfSubType("com.commerce.")
+                        .allowIfSubType("java.util.")
+                        .allowIfSubType("java.math.")
+                        // Cached empty results
+                        .allowIfSubType(NullValue.class)
+                        .build(),
+                ObjectMapper.DefaultTyping.NON_FINAL,
+                JsonTypeInfo.As.PROPERTY);
+        return mapper;
+    }
+
+    @Bean
+    public CacheInvalidationBroadcaster cacheInvalidationBroadcaster(StringRedisTemplate redisTemplate) {
+        return new CacheInvalidationBroadcaster(redisTemplate, invalidationChannel);
+    }
+
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                           CacheInvalidationBroadcaster broadcaster) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(broadcaster, new ChannelTopic(invalidationChannel));
+        return container;
+    }
+
+    @Bean
+    public ResponseBodyCache responseBodyCache(ObjectMapper objectMapper, CacheInvalidationBroadcaster broadcaster,
+                                               MeterRegistry meterRegistry) {
+        return new ResponseBodyCache(objectMapper, responseMaximumBytes, responseTimeToLive, responseGzipMinSize,
+                broadcaster, meterRegistry, INVENTORY_CACHE, PRODUCTS_CACHE);
+    }
+
+    /**
+     * Runs refresh-ahead and stale-while-revalidate reloads. Bounded: when the queue is full the reload
+     * is dropped and the entry keeps being served until a later read (or, once expired, a caller) reloads it.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor cacheRefreshExecutor(CachePolicyProperties cachePolicies) {
+        CachePolicyProperties.Refresh refresh = cachePolicies.getRefresh();
+        AtomicInteger threadCount = new AtomicInteger();
+        return new ThreadPoolExecutor(refresh.getThreads(), refresh.getThreads(), 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(refresh.getQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "cache-refresh-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Bean
+    public CacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                     RedisCacheConfiguration redisCacheConfiguration,
+                                     CacheInvalidationBroadcaster broadcaster,
+                                     CachePolicyProperties cachePolicies,
+                                     ThreadPoolExecutor cacheRefreshExecutor,
+                                     PlatformTransactionManager transactionManager,
+                                     StringRedisTemplate redisTemplate,
+                                     MeterRegistry meterRegistry) {
+        Map<String, CachePolicyProperties.Policy> policies = cachePolicies.getPolicies();
+        Set<String> names = new LinkedHashSet<>(cacheNames);
+        names.addAll(policies.keySet());
+        RedisCacheManager.RedisCacheManagerBuilder builder = RedisCacheManager.builder(connectionFactory)
+                .cacheDefaults(redisCacheConfiguration)
+                .initialCacheNames(names);
+        Map<String, Long> nearMaximumSizes = new HashMap<>();
+        GenericJackson2JsonRedisSerializer json = jsonSerializer();
+        ObjectMapper smile = smileMapper();
+        int compressionThreshold = cachePolicies.getSerialization().getCompressionThreshold();
+        policies.forEach((name, policy) -> {
+            boolean binary = policy.getFormat() == CachePolicyProperties.Format.BINARY;
+            builder.withCacheConfiguration(name, redisCacheConfiguration
+                    // Redis keeps entries through the stale window, so they can still be served while reloading
+                    .entryTtl(ttlOf(policy).plus(policy.getStaleWhileRevalidate()))
+                    .serializeValuesWith(SerializationPair.fromSerializer(
+                            new CacheValueSerializer(name, smile, json, binary, compressionThreshold, meterRegistry))));
+            if (policy.getMaxSize() != null) {
+                nearMaximumSizes.put(name, policy.getMaxSize());
+            }
+        });
+        if (enableStatistics) {
+            builder.enableStatistics();
+        }
+        RedisCacheManager redisCacheManager = builder.build();
+        redisCacheManager.afterPropertiesSet();
+
+        TransactionTemplate refreshTransaction = new TransactionTemplate(transactionManager);
+        refreshTransaction.setReadOnly(true);
+        Set<String> nearCaches = Set.copyOf(nearCacheNames);
+        return new TwoTierCacheManager(redisCacheManager, nearCaches, nearMaximumSize, nearMaximumSizes,
+                nearTimeToLive, broadcaster, cache -> {
+                    CachePolicyProperties.Policy policy = policies.get(cache.getName());
+                    if (policy == null || !policy.refreshes()) {
+                        return new SingleFlightCache(cache, loadTimeout, meterRegistry);
+                    }
+                    return new RefreshingCache(cache, loadTimeout, meterRegistry, ttlOf(policy),
+                            policy.getRefreshAhead(), policy.getStaleWhileRevalidate(),
+                            cacheRefreshExecutor, refreshTransaction, broadcaster, redisTemplate);
+                });
+    }
+
+    private Duration ttlOf(CachePolicyProperties.Policy policy) {
+        return policy.getTtl() != null ? policy.getTtl() : Duration.ofMillis(timeToLiveMs);
+    }
+
+    /**
+     * Cache metrics behind the single-flight wrapper: the Redis tier under the cache's name,
+     * a local tier as {@code <name>.near}.
+     */
+    @Bean
+    public CacheMeterBinderProvider<SingleFlightCache> singleFlightCacheMeterBinderProvider() {
+        return (cache, tags) -> registry -> {
+            Cache remote = cache.getDelegate();
+            if (remote instanceof TwoTierCache twoTier) {
+                new CaffeineCacheMetrics<>(twoTier.getLocalCache(), cache.getName() + ".near", tags).bindTo(registry);
+                remote = twoTier.getRemoteCache();
+            }
+            if (remote instanceof RedisCache redisCache) {
+                new RedisCacheMetrics(redisCache, tags).bindTo(registry);
+            }
+        };
     }
 }
@@ -0,0 +1,169 @@
+package com.commerce.config;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Per-cache policies under {@code commerce.inventory.cache.policies.<cache>}.
+ * Caches without a policy use {@code spring.cache.redis.time-to-live} and no background refresh.
+ */
+@ConfigurationProperties(prefix = "commerce.inventory.cache")
+public class CachePolicyProperties {
+
+    private Map<String, Policy> policies = new HashMap<>();
+
+    private final Refresh refresh = new Refresh();
+
+    private final Serialization serialization = new Serialization();
+
+    /**
+     * How a cache's values are encoded in Redis.
+     */
+    public enum Format {
+        /**
+         * JSON text with type information.
+         */
+        JSON,
+        /**
+         * Smile, LZ4-compressed above {@code serialization.compression-threshold}.
+         */
+        BINARY
+    }
+
+    public static class Policy {
+
+        /**
+         * How long an entry is fresh. Null uses spring.cache.redis.time-to-live.
+         */
+        private Duration ttl;
+
+        /**
+         * Size bound of the in-process tier, for caches that have one. Null uses commerce.inventory.cache.near.maximum-size.
+         */
+        private Long maxSize;
+
+        /**
+         * Fraction of the TTL after which a read triggers a background reload (e.g. 0.8). 0 disables refresh-ahead.
+         */
+        private double refreshAhead;
+
+        /**
+         * How long past the TTL an entry is still served while a background reload runs. Zero disables it;
+         * with it enabled, invalidation marks entries stale instead of deleting them.
+         */
+        private Duration staleWhileRevalidate = Duration.ZERO;
+
+        /**
+         * Encoding of values in Redis. Entries written in the other format stay readable.
+         */
+        private Format format = Format.JSON;
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public Long getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(Long maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public double getRefreshAhead() {
+            return refreshAhead;
+        }
+
+        public void setRefreshAhead(double refreshAhead) {
+            this.refreshAhead = refreshAhead;
+        }
+
+        public Duration getStaleWhileRevalidate() {
+            return staleWhileRevalidate;
+        }
+
+        public void setStaleWhileRevalidate(Duration staleWhileRevalidate) {
+            this.staleWhileRevalidate = staleWhileRevalidate;
+        }
+
+        public Format getFormat() {
+            return format;
+        }
+
+        public void setFormat(Format format) {
+            this.format = format;
+        }
+
+        public boolean refreshes() {
+            return refreshAhead > 0 || !staleWhileRevalidate.isZero();
+        }
+    }
+
+    /**
+     * Background reload executor shared by all caches.
+     */
+    public static class Refresh {
+
+        private int threads = 2;
+
+        /**
+         * Pending reloads beyond this are dropped; the entry is reloaded on a later read.
+         */
+        private int queueCapacity = 100;
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+    }
+
+    public static class Serialization {
+
+        /**
+         * Encoded size in bytes above which BINARY values are LZ4-compressed.
+         */
+        private int compressionThreshold = 1024;
+
+        public int getCompressionThreshold() {
+            return compressionThreshold;
+        }
+
+        public void setCompressionThreshold(int compressionThreshold) {
+            this.compressionThreshold = compressionThreshold;
+        }
+    }
+
+    public Map<String, Policy> getPolicies() {
+        return policies;
+    }
+
+    public void setPolicies(Map<String, Policy> policies) {
+        this.policies = policies;
+    }
+
+    public Refresh getRefresh() {
+        return refresh;
+    }
+
+    public Serialization getSerialization() {
+        return serialization;
+    }
+}
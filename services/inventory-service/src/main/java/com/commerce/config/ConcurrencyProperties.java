@@ -0,0 +1,170 @@
+package com.commerce.config;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import com.commerce.service.ConcurrencyMode;
+
+/**
+ * Stock concurrency settings under {@code commerce.inventory.concurrency}.
+ * Resolution order for a product: split buckets, automatic escalation, product override,
+ * category override, global mode.
+ */
+@ConfigurationProperties(prefix = "commerce.inventory.concurrency")
+public class ConcurrencyProperties {
+
+    /**
+     * Global default mode.
+     */
+    private ConcurrencyMode mode = ConcurrencyMode.OPTIMISTIC;
+
+    /**
+     * Per-product overrides keyed by productId.
+     */
+    private Map<UUID, ConcurrencyMode> products = new HashMap<>();
+
+    /**
+     * Per-category overrides keyed by category name.
+     */
+    private Map<String, ConcurrencyMode> categories = new HashMap<>();
+
+    /**
+     * Product categories kept in memory for category overrides.
+     */
+    private long categoryCacheSize = 100_000;
+
+    /**
+     * How long a cached category is trusted; changes made on other instances show up after this.
+     */
+    private Duration categoryCacheTtl = Duration.ofMinutes(10);
+
+    private final AutoSwitch autoSwitch = new AutoSwitch();
+
+    /**
+     * Switch a product away from optimistic locking when its conflict rate gets too high.
+     */
+    public static class AutoSwitch {
+
+        private boolean enabled = true;
+
+        /**
+         * Fraction of attempts ending in a version conflict that triggers a switch.
+         */
+        private double conflictThreshold = 0.2;
+
+        /**
+         * Minimum attempts in a window before the rate is trusted.
+         */
+        private int minSamples = 20;
+
+        /**
+         * Length of the sampling window.
+         */
+        private Duration window = Duration.ofSeconds(10);
+
+        /**
+         * How long a switched product stays on the target mode before trying optimistic again.
+         */
+        private Duration cooldown = Duration.ofMinutes(5);
+
+        private ConcurrencyMode targetMode = ConcurrencyMode.ATOMIC;
+
+        // Getters and Setters
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public double getConflictThreshold() {
+            return conflictThreshold;
+        }
+
+        public void setConflictThreshold(double conflictThreshold) {
+            this.conflictThreshold = conflictThreshold;
+        }
+
+        public int getMinSamples() {
+            return minSamples;
+        }
+
+        public void setMinSamples(int minSamples) {
+            this.minSamples = minSamples;
+        }
+
+        public Duration getWindow() {
+            return window;
+        }
+
+        public void setWindow(Duration window) {
+            this.window = window;
+        }
+
+        public Duration getCooldown() {
+            return cooldown;
+        }
+
+        public void setCooldown(Duration cooldown) {
+            this.cooldown = cooldown;
+        }
+
+        public ConcurrencyMode getTargetMode() {
+            return targetMode;
+        }
+
+        public void setTargetMode(ConcurrencyMode targetMode) {
+            this.targetMode = targetMode;
+        }
+    }
+
+    // Getters and Setters
+    public ConcurrencyMode getMode() {
+        return mode;
+    }
+
+    public void setMode(ConcurrencyMode mode) {
+        this.mode = mode;
+    }
+
+    public Map<UUID, ConcurrencyMode> getProducts() {
+        return products;
+    }
+
+    public void setProducts(Map<UUID, ConcurrencyMode> products) {
+        this.products = products;
+    }
+
+    public Map<String, ConcurrencyMode> getCategories() {
+        return categories;
+    }
+
+    public void setCategories(Map<String, ConcurrencyMode> categories) {
+        this.categories = categories;
+    }
+
+    public long getCategoryCacheSize() {
+        return categoryCacheSize;
+    }
+
+    public void setCategoryCacheSize(long categoryCacheSize) {
+        this.categoryCacheSize = categoryCacheSize;
+    }
+
+    public Duration getCategoryCacheTtl() {
+        return categoryCacheTtl;
+    }
+
+    public void setCategoryCacheTtl(Duration categoryCacheTtl) {
+        this.categoryCacheTtl = categoryCacheTtl;
+    }
+
+    public AutoSwitch getAutoSwitch() {
+        return autoSwitch;
+    }
+}
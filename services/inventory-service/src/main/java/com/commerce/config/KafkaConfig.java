@@ -14,6 +14,7 @@ import org.springframework.kafka.core.ProducerFactory;
 import org.springframework.kafka.support.serializer.JsonSerializer;
 
 import com.commerce.event.InventoryEvent;
+import com.commerce.event.InventoryEventAvroSerializer;
 
 @Configuration
 public class KafkaConfig {
@@ -21,22 +22,65 @@ public class KafkaConfig {
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrap;
 
+    // json keeps existing consumers working; avro is the compact binary encoding
+    @Value("${inventory.events.format:json}")
+    private String format;
+
+    // reliable: one request in flight, sent immediately; throughput: lingered, compressed batches
+    @Value("${inventory.events.producer.profile:reliable}")
+    private String profile;
+
+    @Value("${inventory.events.producer.linger-ms:20}")
+    private int lingerMs;
+
+    @Value("${inventory.events.producer.batch-size:131072}")
+    private int batchSize;
+
+    @Value("${inventory.events.producer.compression:lz4}")
+    private String compression;
+
     @Bean
     public ProducerFactory<String, InventoryEvent> inventoryProducerFactory() {
+        Map<String, Object> props = producerProperties(bootstrap, format);
+        if ("throughput".equalsIgnoreCase(profile)) {
+            applyThroughputProfile(props, lingerMs, batchSize, compression);
+        }
+        return new DefaultKafkaProducerFactory<>(props);
+    }
+
+    @Bean
+    public KafkaTemplate<String, InventoryEvent> inventoryKafkaTemplate() {
+        return new KafkaTemplate<>(inventoryProducerFactory());
+    }
+
+    /**
+     * Base producer settings: acks=all with idempotence, value encoding chosen by format.
+     */
+    public static Map<String, Object> producerProperties(String bootstrap, String format) {
         Map<String, Object> props = new HashMap<>();
         props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrap);
         props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        if ("avro".equalsIgnoreCase(format)) {
+            props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, InventoryEventAvroSerializer.class);
+        } else {
+            props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+            // optional: avoid adding type headers if consumers aren’t Spring
+            props.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
+        }
         props.put(ProducerConfig.ACKS_CONFIG, "all");
         props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
         props.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 1);
-        // optional: avoid adding type headers if consumers aren’t Spring
-        props.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
-        return new DefaultKafkaProducerFactory<>(props);
+        return props;
     }
 
-    @Bean
-    public KafkaTemplate<String, InventoryEvent> inventoryKafkaTemplate() {
-        return new KafkaTemplate<>(inventoryProducerFactory());
+    /**
+     * Batch records for up to lingerMs and compress whole batches. Idempotence keeps
+     * per-partition ordering with up to 5 requests in flight.
+     */
+    public static void applyThroughputProfile(Map<String, Object> props, int lingerMs, int batchSize, String compression) {
+        props.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        props.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+        props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compression);
+        props.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,78 @@
+package com.commerce.config;
+
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Polls the replica's replay lag. The replica is used for reads only while the last check
+ * succeeded recently and reported a lag within the configured bound.
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final JdbcTemplate replicaJdbcTemplate;
+    private final String lagQuery;
+    private final long maxLagMillis;
+    private final long staleAfterMillis;
+
+    private volatile double lagSeconds = Double.NaN;
+    private volatile long lastCheckedAt;
+    private volatile boolean usable;
+
+    public ReplicaLagMonitor(DataSource replica, String lagQuery, Duration maxLag,
+                             long checkIntervalMs, MeterRegistry meterRegistry) {
+        this.replicaJdbcTemplate = new JdbcTemplate(replica);
+        this.replicaJdbcTemplate.setQueryTimeout(Math.max(1, (int) (checkIntervalMs / 1000)));
+        this.lagQuery = lagQuery;
+        this.maxLagMillis = maxLag.toMillis();
+        // A check that stops answering must not keep the replica in rotation
+        this.staleAfterMillis = checkIntervalMs * 3;
+
+        Gauge.builder("inventory.datasource.replica.lag", this, monitor -> monitor.lagSeconds)
+                .description("Replica replay lag in seconds (NaN when the replica cannot be reached)")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${commerce.inventory.datasource.replica.lag-check-interval-ms:1000}")
+    public void check() {
+        boolean wasUsable = usable;
+        try {
+            Number lag = replicaJdbcTemplate.queryForObject(lagQuery, Number.class);
+            lagSeconds = lag != null ? lag.doubleValue() : 0;
+            lastCheckedAt = System.currentTimeMillis();
+            usable = lagSeconds * 1000 <= maxLagMillis;
+        } catch (Exception e) {
+            lagSeconds = Double.NaN;
+            usable = false;
+            if (wasUsable) {
+                logger.warn("Replica lag check failed, routing reads to the primary: {}", e.getMessage());
+            }
+            return;
+        }
+
+        if (wasUsable && !usable) {
+            logger.warn("Replica lag {}s exceeds {} ms, routing reads to the primary", lagSeconds, maxLagMillis);
+        } else if (!wasUsable && usable) {
+            logger.info("Replica lag {}s within bound, routing read-only transactions to the replica", lagSeconds);
+        }
+    }
+
+    public boolean isReplicaUsable() {
+        return usable && System.currentTimeMillis() - lastCheckedAt <= staleAfterMillis;
+    }
+
+    public double getLagSeconds() {
+        return lagSeconds;
+    }
+}
@@ -0,0 +1,93 @@
+package com.commerce.config;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Routes read-only transactions to the replica pool and everything else to the primary.
+ * Wrapped in a {@code LazyConnectionDataSourceProxy}, so the target is chosen at the first
+ * statement, once the transaction's read-only flag is known.
+ *
+ * <p>Reads fall back to the primary while {@link ReplicaLagMonitor} reports the replica too far
+ * behind, and for work that must see the latest commits (see {@link #onPrimary(Supplier)}).
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+    static final String REPLICA = "replica";
+
+    private static final ThreadLocal<Boolean> PRIMARY_PINNED = new ThreadLocal<>();
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final Counter primaryRoutes;
+    private final Counter replicaRoutes;
+    private final Counter fallbackRoutes;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica,
+                                    ReplicaLagMonitor lagMonitor, MeterRegistry meterRegistry) {
+        this.lagMonitor = lagMonitor;
+        this.primaryRoutes = routeCounter(meterRegistry, PRIMARY);
+        this.replicaRoutes = routeCounter(meterRegistry, REPLICA);
+        this.fallbackRoutes = routeCounter(meterRegistry, "fallback");
+        setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || Boolean.TRUE.equals(PRIMARY_PINNED.get())) {
+            primaryRoutes.increment();
+            return PRIMARY;
+        }
+        if (!lagMonitor.isReplicaUsable()) {
+            fallbackRoutes.increment();
+            return PRIMARY;
+        }
+        replicaRoutes.increment();
+        return REPLICA;
+    }
+
+    /**
+     * Run work on the primary even inside a read-only transaction, e.g. scans that are compared
+     * against state maintained from change events and must not see an older snapshot.
+     * Has no effect when no replica is configured.
+     */
+    public static <T> T onPrimary(Supplier<T> work) {
+        Boolean previous = PRIMARY_PINNED.get();
+        PRIMARY_PINNED.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                PRIMARY_PINNED.remove();
+            } else {
+                PRIMARY_PINNED.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Run work on the primary even inside a read-only transaction.
+     */
+    public static void onPrimary(Runnable work) {
+        onPrimary(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    private static Counter routeCounter(MeterRegistry meterRegistry, String target) {
+        return Counter.builder("inventory.datasource.routes")
+                .description("Connections routed per target; fallback = read-only work sent to the primary because of replica lag")
+                .tag("target", target)
+                .register(meterRegistry);
+    }
+}
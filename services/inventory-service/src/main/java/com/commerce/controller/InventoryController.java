@@ -1,16 +1,46 @@
 package com.commerce.controller;
 
+import com.commerce.cache.ResponseBodyCache;
+import com.commerce.config.CacheConfig;
+import com.commerce.dto.AvailabilityBatchRequest;
+import com.commerce.dto.BatchReservationRequest;
+import com.commerce.dto.InventoryImportResult;
+import com.commerce.dto.InventoryPage;
 import com.commerce.dto.InventoryResponse;
+import com.commerce.dto.ProductSearchHit;
+import com.commerce.dto.ReservationItem;
+import com.commerce.search.ProductSearchIndex;
 import com.commerce.dto.StockReservationRequest;
+import com.commerce.service.BatchAvailabilityService;
+import com.commerce.service.BulkInventoryImportService;
+import com.commerce.service.CatalogExportService;
 import com.commerce.service.InventoryService;
+import com.commerce.service.KnownProductFilter;
+import com.commerce.service.LowStockIndex;
+import com.commerce.service.LowStockNotifier;
+import com.commerce.service.ReservationCombiner;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -27,34 +57,224 @@ public class InventoryController {
     private static final Logger logger = LoggerFactory.getLogger(InventoryController.class);
 
     private final InventoryService inventoryService;
+    private final ReservationCombiner reservationCombiner;
+    private final BatchAvailabilityService batchAvailabilityService;
+    private final CatalogExportService catalogExportService;
+    private final BulkInventoryImportService bulkInventoryImportService;
+    private final ProductSearchIndex productSearchIndex;
+    private final LowStockIndex lowStockIndex;
+    private final LowStockNotifier lowStockNotifier;
+    private final KnownProductFilter knownProducts;
+    private final ResponseBodyCache responseBodyCache;
+    private final ObjectMapper objectMapper;
+
+    @Value("${commerce.inventory.pagination.default-limit:100}")
+    private int defaultLimit;
+
+    @Value("${commerce.inventory.pagination.max-limit:1000}")
+    private int maxLimit;
+
+    @Value("${commerce.inventory.split.max-buckets:64}")
+    private int maxBuckets;
 
     @Autowired
-    public InventoryController(InventoryService inventoryService) {
+    public InventoryController(InventoryService inventoryService,
+                               ReservationCombiner reservationCombiner,
+                               BatchAvailabilityService batchAvailabilityService,
+                               CatalogExportService catalogExportService,
+                               BulkInventoryImportService bulkInventoryImportService,
+                               ProductSearchIndex productSearchIndex,
+                               LowStockIndex lowStockIndex,
+                               LowStockNotifier lowStockNotifier,
+                               KnownProductFilter knownProducts,
+                               ResponseBodyCache responseBodyCache,
+                               ObjectMapper objectMapper) {
         this.inventoryService = inventoryService;
+        this.reservationCombiner = reservationCombiner;
+        this.batchAvailabilityService = batchAvailabilityService;
+        this.catalogExportService = catalogExportService;
+        this.bulkInventoryImportService = bulkInventoryImportService;
+        this.productSearchIndex = productSearchIndex;
+        this.lowStockIndex = lowStockIndex;
+        this.lowStockNotifier = lowStockNotifier;
+        this.knownProducts = knownProducts;
+        this.responseBodyCache = responseBodyCache;
+        this.objectMapper = objectMapper;
     }
 
     /**
-     * Get all products with inventory.
+     * Get products with inventory.
+     * Without parameters returns the whole catalog; with {@code after}/{@code limit} returns a keyset page;
+     * with {@code stream=true} streams the whole catalog as a JSON array straight from a database cursor.
+     * The whole catalog is served from the response body cache.
      */
     @GetMapping("/products")
     @Timed(value = "inventory.get_all", description = "Time taken to get all products")
-    public ResponseEntity<List<InventoryResponse>> getAllProducts() {
-        logger.debug("Getting all products with inventory");
-        List<InventoryResponse> products = inventoryService.getAllProducts();
-        return ResponseEntity.ok(products);
+    public ResponseEntity<?> getAllProducts(
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = InventoryService.SORT_PRODUCT_ID) String sort,
+            @RequestParam(defaultValue = "false") boolean stream,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+
+        if (!InventoryService.SORT_PRODUCT_ID.equals(sort) && !InventoryService.SORT_SKU.equals(sort)) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", "Sort must be productId or sku"
+            ));
+        }
+
+        if (stream) {
+            logger.debug("Streaming all products sorted by {}", sort);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(streamProducts(sort));
+        }
+
+        if (after == null && limit == null) {
+            logger.debug("Getting all products with inventory");
+            ResponseBodyCache.Body body = responseBodyCache.get(CacheConfig.PRODUCTS_CACHE, "all",
+                    inventoryService::getAllProducts);
+            return cachedBody(body, ifNoneMatch, acceptEncoding);
+        }
+
+        int pageSize = limit == null ? defaultLimit : Math.max(1, Math.min(limit, maxLimit));
+        if (after != null && InventoryService.SORT_PRODUCT_ID.equals(sort)) {
+            try {
+                UUID.fromString(after);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "message", "Cursor must be a product ID when sorting by productId"
+                ));
+            }
+        }
+
+        logger.debug("Getting products page: sort={}, after={}, limit={}", sort, after, pageSize);
+        InventoryPage page = inventoryService.getProductsPage(sort, after, pageSize);
+        return ResponseEntity.ok(page);
+    }
+
+    private StreamingResponseBody streamProducts(String sort) {
+        // Let the generator buffer rows instead of flushing the response after every element
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        return out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.writeStartArray();
+                inventoryService.streamProducts(sort, product -> {
+                    try {
+                        writer.writeValue(generator, product);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+    }
+
+    /**
+     * Answer from a cached body: 304 when the client's ETag matches, otherwise the stored bytes
+     * (gzipped when the client accepts it), written out as they are.
+     */
+    private ResponseEntity<?> cachedBody(ResponseBodyCache.Body body, String ifNoneMatch, String acceptEncoding) {
+        boolean gzip = body.gzip() != null && acceptsGzip(acceptEncoding);
+        String etag = gzip ? body.gzipEtag() : body.etag();
+        if (body.matches(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+
+        byte[] bytes = gzip ? body.gzip() : body.json();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .contentLength(bytes.length)
+                .eTag(etag)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(bytes);
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                // gzip;q=0 means "not gzip"
+                return parts.length < 2 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Search products by name, SKU and description tokens or token prefixes.
+     */
+    @GetMapping("/search")
+    @Timed(value = "inventory.search", description = "Time taken to search products")
+    public ResponseEntity<?> searchProducts(
+            @RequestParam("q") String query,
+            @RequestParam(required = false) String category,
+            @RequestParam(defaultValue = "20") Integer limit) {
+
+        logger.debug("Searching products: q={}, category={}, limit={}", query, category, limit);
+
+        if (!productSearchIndex.isReady()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of(
+                "success", false,
+                "message", "Search index is still building"
+            ));
+        }
+
+        List<ProductSearchHit> hits = productSearchIndex.search(query, category, Math.max(1, Math.min(limit, 100)));
+        return ResponseEntity.ok(hits);
     }
 
     /**
-     * Get inventory for a specific product.
+     * Export the whole catalog with stock as newline-delimited JSON, optionally gzip-encoded.
+     */
+    @GetMapping("/export")
+    @Timed(value = "inventory.export", description = "Time taken to export the catalog")
+    public ResponseEntity<StreamingResponseBody> exportCatalog(@RequestParam(defaultValue = "false") boolean gzip) {
+        logger.info("Exporting catalog (gzip={})", gzip);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"catalog.ndjson\"");
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(out -> catalogExportService.export(out, gzip));
+    }
+
+    /**
+     * Get inventory for a specific product, from the response body cache.
      */
     @GetMapping("/products/{productId}")
     @Timed(value = "inventory.get", description = "Time taken to get inventory")
-    public ResponseEntity<?> getInventory(@PathVariable UUID productId) {
+    public ResponseEntity<?> getInventory(
+            @PathVariable UUID productId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         logger.debug("Getting inventory for product: {}", productId);
-        
-        return inventoryService.getInventory(productId)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+
+        if (!knownProducts.mightContain(productId)) {
+            return ResponseEntity.notFound().build();
+        }
+        ResponseBodyCache.Body body = responseBodyCache.get(CacheConfig.INVENTORY_CACHE, productId,
+                () -> inventoryService.getInventory(productId).orElse(null));
+        if (body == null) {
+            knownProducts.recordMissingProduct();
+            return ResponseEntity.notFound().build();
+        }
+        return cachedBody(body, ifNoneMatch, acceptEncoding);
     }
 
     /**
@@ -62,12 +282,23 @@ public class InventoryController {
      */
     @GetMapping("/sku/{sku}")
     @Timed(value = "inventory.get.sku", description = "Time taken to get inventory by SKU")
-    public ResponseEntity<?> getInventoryBySku(@PathVariable String sku) {
+    public ResponseEntity<?> getInventoryBySku(
+            @PathVariable String sku,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         logger.debug("Getting inventory for SKU: {}", sku);
-        
-        return inventoryService.getInventoryBySku(sku)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+
+        if (!knownProducts.isReady()) {
+            return inventoryService.getInventoryBySku(sku)
+                    .map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        }
+        // Resolved in memory, then served like the product ID lookup
+        UUID productId = knownProducts.productIdOfSku(sku);
+        if (productId == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return getInventory(productId, ifNoneMatch, acceptEncoding);
     }
 
     /**
@@ -90,6 +321,35 @@ public class InventoryController {
         ));
     }
 
+    /**
+     * Check stock availability for several products in one call.
+     */
+    @PostMapping("/availability/batch")
+    @Timed(value = "inventory.check.availability.batch", description = "Time taken to check availability of a batch")
+    public ResponseEntity<Map<String, Object>> checkAvailabilityBatch(@Valid @RequestBody AvailabilityBatchRequest request) {
+        logger.debug("Checking availability for {} items", request.getItems().size());
+
+        List<ReservationItem> items = request.getItems();
+        List<Boolean> availability = batchAvailabilityService.checkAvailability(items);
+
+        List<Map<String, Object>> results = new ArrayList<>(items.size());
+        boolean allAvailable = true;
+        for (int i = 0; i < items.size(); i++) {
+            boolean available = availability.get(i);
+            allAvailable &= available;
+            results.add(Map.of(
+                "productId", items.get(i).getProductId(),
+                "requestedQuantity", items.get(i).getQuantity(),
+                "available", available
+            ));
+        }
+
+        return ResponseEntity.ok(Map.of(
+            "allAvailable", allAvailable,
+            "results", results
+        ));
+    }
+
     /**
      * Reserve stock for an order.
      */
@@ -98,7 +358,7 @@ public class InventoryController {
     public ResponseEntity<Map<String, Object>> reserveStock(@Valid @RequestBody StockReservationRequest request) {
         logger.info("Reserving stock: {}", request);
         
-        boolean success = inventoryService.reserveStock(request);
+        boolean success = reservationCombiner.reserve(request);
         
         if (success) {
             return ResponseEntity.ok(Map.of(
@@ -119,6 +379,33 @@ public class InventoryController {
         }
     }
 
+    /**
+     * Reserve stock for every line of a cart in a single transaction.
+     */
+    @PostMapping("/reserve/batch")
+    @Timed(value = "inventory.reserve.batch", description = "Time taken to reserve a batch of stock")
+    public ResponseEntity<Map<String, Object>> reserveStockBatch(@Valid @RequestBody BatchReservationRequest request) {
+        logger.info("Reserving stock batch: {}", request);
+
+        List<UUID> rejectedProductIds = inventoryService.reserveStockBatch(request);
+
+        if (rejectedProductIds.isEmpty()) {
+            return ResponseEntity.ok(Map.of(
+                "success", true,
+                "message", "Stock reserved successfully",
+                "orderId", request.getOrderId(),
+                "itemCount", request.getItems().size()
+            ));
+        } else {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", "Failed to reserve stock - insufficient quantity or product not found",
+                "orderId", request.getOrderId(),
+                "rejectedProductIds", rejectedProductIds
+            ));
+        }
+    }
+
     /**
      * Release reserved stock.
      */
@@ -199,6 +486,90 @@ public class InventoryController {
         }
     }
 
+    /**
+     * Import warehouse stock counts in bulk from a CSV or NDJSON body.
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    @Timed(value = "inventory.import", description = "Time taken to import stock counts")
+    public ResponseEntity<Map<String, Object>> importInventory(HttpServletRequest request) throws IOException {
+        String format = MediaType.APPLICATION_NDJSON.isCompatibleWith(MediaType.parseMediaType(request.getContentType()))
+                ? BulkInventoryImportService.FORMAT_NDJSON
+                : BulkInventoryImportService.FORMAT_CSV;
+        logger.info("Importing inventory ({})", format);
+
+        try {
+            InventoryImportResult result = bulkInventoryImportService.importStock(request.getInputStream(), format);
+            return ResponseEntity.ok(Map.of(
+                "success", true,
+                "message", "Inventory imported successfully",
+                "result", result
+            ));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Inventory import rejected: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", "Failed to import inventory - " + e.getMessage()
+            ));
+        }
+    }
+
+    /**
+     * Split a hot product's stock into escrow buckets.
+     */
+    @PostMapping("/products/{productId}/split")
+    @Timed(value = "inventory.split", description = "Time taken to split inventory into buckets")
+    public ResponseEntity<Map<String, Object>> splitInventory(
+            @PathVariable UUID productId,
+            @RequestParam(defaultValue = "8") Integer buckets) {
+
+        logger.info("Splitting inventory for product: {} into {} buckets", productId, buckets);
+
+        if (buckets < 1 || buckets > maxBuckets) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", "Bucket count must be between 1 and " + maxBuckets
+            ));
+        }
+
+        boolean success = inventoryService.splitInventory(productId, buckets);
+
+        if (success) {
+            return ResponseEntity.ok(Map.of(
+                "success", true,
+                "message", "Inventory split successfully",
+                "buckets", buckets
+            ));
+        } else {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", "Failed to split inventory - product not found"
+            ));
+        }
+    }
+
+    /**
+     * Merge a split product back into a single inventory row.
+     */
+    @DeleteMapping("/products/{productId}/split")
+    @Timed(value = "inventory.merge", description = "Time taken to merge inventory buckets")
+    public ResponseEntity<Map<String, Object>> mergeInventory(@PathVariable UUID productId) {
+        logger.info("Merging inventory buckets for product: {}", productId);
+
+        boolean success = inventoryService.mergeInventory(productId);
+
+        if (success) {
+            return ResponseEntity.ok(Map.of(
+                "success", true,
+                "message", "Inventory buckets merged successfully"
+            ));
+        } else {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", "Failed to merge inventory - product not split"
+            ));
+        }
+    }
+
     /**
      * Get low stock items.
      */
@@ -213,6 +584,16 @@ public class InventoryController {
         return ResponseEntity.ok(lowStockItems);
     }
 
+    /**
+     * Subscribe to low-stock alerts as server-sent events.
+     * A "snapshot" event lists current low-stock products, then "low-stock" events report threshold crossings.
+     */
+    @GetMapping(value = "/low-stock/subscribe", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeLowStock() {
+        logger.debug("New low-stock subscription");
+        return lowStockNotifier.subscribe(lowStockIndex.currentAlerts());
+    }
+
     /**
      * Get inventory by category.
      */
@@ -237,6 +618,7 @@ public class InventoryController {
         
         return ResponseEntity.ok(Map.of(
             "totalValue", totalValue,
+            "categories", inventoryService.getCategoryInventoryValues(),
             "currency", "USD"
         ));
     }
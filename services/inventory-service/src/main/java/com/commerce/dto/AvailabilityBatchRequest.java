@@ -0,0 +1,43 @@
+package com.commerce.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * Request DTO for checking availability of several (productId, quantity) lines at once.
+ */
+public class AvailabilityBatchRequest {
+
+    @JsonProperty("items")
+    @NotEmpty(message = "Items cannot be empty")
+    @Size(max = 500, message = "At most 500 items can be checked at once")
+    @Valid
+    private List<ReservationItem> items;
+
+    // Constructors
+    public AvailabilityBatchRequest() {}
+
+    public AvailabilityBatchRequest(List<ReservationItem> items) {
+        this.items = items;
+    }
+
+    // Getters and Setters
+    public List<ReservationItem> getItems() {
+        return items;
+    }
+
+    public void setItems(List<ReservationItem> items) {
+        this.items = items;
+    }
+
+    @Override
+    public String toString() {
+        return "AvailabilityBatchRequest{" +
+                "items=" + items +
+                '}';
+    }
+}
@@ -0,0 +1,57 @@
+package com.commerce.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Request DTO for reserving every line of a cart in a single transaction.
+ */
+public class BatchReservationRequest {
+
+    @JsonProperty("orderId")
+    @NotNull(message = "Order ID cannot be null")
+    private UUID orderId;
+
+    @JsonProperty("items")
+    @NotEmpty(message = "Items cannot be empty")
+    @Valid
+    private List<ReservationItem> items;
+
+    // Constructors
+    public BatchReservationRequest() {}
+
+    public BatchReservationRequest(UUID orderId, List<ReservationItem> items) {
+        this.orderId = orderId;
+        this.items = items;
+    }
+
+    // Getters and Setters
+    public UUID getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(UUID orderId) {
+        this.orderId = orderId;
+    }
+
+    public List<ReservationItem> getItems() {
+        return items;
+    }
+
+    public void setItems(List<ReservationItem> items) {
+        this.items = items;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchReservationRequest{" +
+                "orderId=" + orderId +
+                ", items=" + items +
+                '}';
+    }
+}
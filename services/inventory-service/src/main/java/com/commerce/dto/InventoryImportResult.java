@@ -0,0 +1,114 @@
+package com.commerce.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Outcome of a bulk stock import. Every row read lands in exactly one of
+ * updated, unchanged, unknown, rejected or superseded (an earlier row for a product listed again).
+ */
+public class InventoryImportResult {
+
+    @JsonProperty("rowsRead")
+    private long rowsRead;
+
+    @JsonProperty("updated")
+    private long updated;
+
+    @JsonProperty("unchanged")
+    private long unchanged;
+
+    @JsonProperty("unknown")
+    private long unknown;
+
+    @JsonProperty("rejected")
+    private long rejected;
+
+    @JsonProperty("superseded")
+    private long superseded;
+
+    @JsonProperty("elapsedMs")
+    private long elapsedMs;
+
+    @JsonProperty("rowsPerSecond")
+    private long rowsPerSecond;
+
+    // Constructors
+    public InventoryImportResult() {}
+
+    public InventoryImportResult(long rowsRead, long updated, long unchanged, long unknown,
+                                 long rejected, long superseded, long elapsedMs) {
+        this.rowsRead = rowsRead;
+        this.updated = updated;
+        this.unchanged = unchanged;
+        this.unknown = unknown;
+        this.rejected = rejected;
+        this.superseded = superseded;
+        this.elapsedMs = elapsedMs;
+        this.rowsPerSecond = rowsRead * 1000 / Math.max(elapsedMs, 1);
+    }
+
+    // Getters and Setters
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    public void setRowsRead(long rowsRead) {
+        this.rowsRead = rowsRead;
+    }
+
+    public long getUpdated() {
+        return updated;
+    }
+
+    public void setUpdated(long updated) {
+        this.updated = updated;
+    }
+
+    public long getUnchanged() {
+        return unchanged;
+    }
+
+    public void setUnchanged(long unchanged) {
+        this.unchanged = unchanged;
+    }
+
+    public long getUnknown() {
+        return unknown;
+    }
+
+    public void setUnknown(long unknown) {
+        this.unknown = unknown;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    public long getSuperseded() {
+        return superseded;
+    }
+
+    public void setSuperseded(long superseded) {
+        this.superseded = superseded;
+    }
+
+    public long getElapsedMs() {
+        return elapsedMs;
+    }
+
+    public void setElapsedMs(long elapsedMs) {
+        this.elapsedMs = elapsedMs;
+    }
+
+    public long getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    public void setRowsPerSecond(long rowsPerSecond) {
+        this.rowsPerSecond = rowsPerSecond;
+    }
+}
@@ -0,0 +1,67 @@
+package com.commerce.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * One keyset page of the product listing. Pass {@code nextCursor} as {@code after}
+ * to fetch the following page; it is null on the last page.
+ */
+public class InventoryPage {
+
+    @JsonProperty("items")
+    private List<InventoryResponse> items;
+
+    @JsonProperty("sort")
+    private String sort;
+
+    @JsonProperty("limit")
+    private Integer limit;
+
+    @JsonProperty("nextCursor")
+    private String nextCursor;
+
+    // Constructors
+    public InventoryPage() {}
+
+    public InventoryPage(List<InventoryResponse> items, String sort, Integer limit, String nextCursor) {
+        this.items = items;
+        this.sort = sort;
+        this.limit = limit;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters and Setters
+    public List<InventoryResponse> getItems() {
+        return items;
+    }
+
+    public void setItems(List<InventoryResponse> items) {
+        this.items = items;
+    }
+
+    public String getSort() {
+        return sort;
+    }
+
+    public void setSort(String sort) {
+        this.sort = sort;
+    }
+
+    public Integer getLimit() {
+        return limit;
+    }
+
+    public void setLimit(Integer limit) {
+        this.limit = limit;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
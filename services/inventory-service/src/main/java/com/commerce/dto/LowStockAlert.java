@@ -0,0 +1,106 @@
+package com.commerce.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Pushed to low-stock subscribers when a product's available quantity crosses the threshold.
+ */
+public class LowStockAlert {
+
+    public static final String LOW_STOCK = "LOW_STOCK";
+    public static final String RESTOCKED = "RESTOCKED";
+
+    @JsonProperty("alertType")
+    private String alertType;
+
+    @JsonProperty("productId")
+    private UUID productId;
+
+    @JsonProperty("sku")
+    private String sku;
+
+    @JsonProperty("availableQuantity")
+    private Integer availableQuantity;
+
+    @JsonProperty("threshold")
+    private Integer threshold;
+
+    @JsonProperty("timestamp")
+    private LocalDateTime timestamp;
+
+    // Constructors
+    public LowStockAlert() {
+        this.timestamp = LocalDateTime.now();
+    }
+
+    public LowStockAlert(String alertType, UUID productId, String sku, Integer availableQuantity, Integer threshold) {
+        this.alertType = alertType;
+        this.productId = productId;
+        this.sku = sku;
+        this.availableQuantity = availableQuantity;
+        this.threshold = threshold;
+        this.timestamp = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public String getAlertType() {
+        return alertType;
+    }
+
+    public void setAlertType(String alertType) {
+        this.alertType = alertType;
+    }
+
+    public UUID getProductId() {
+        return productId;
+    }
+
+    public void setProductId(UUID productId) {
+        this.productId = productId;
+    }
+
+    public String getSku() {
+        return sku;
+    }
+
+    public void setSku(String sku) {
+        this.sku = sku;
+    }
+
+    public Integer getAvailableQuantity() {
+        return availableQuantity;
+    }
+
+    public void setAvailableQuantity(Integer availableQuantity) {
+        this.availableQuantity = availableQuantity;
+    }
+
+    public Integer getThreshold() {
+        return threshold;
+    }
+
+    public void setThreshold(Integer threshold) {
+        this.threshold = threshold;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(LocalDateTime timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    @Override
+    public String toString() {
+        return "LowStockAlert{" +
+                "alertType='" + alertType + '\'' +
+                ", productId=" + productId +
+                ", availableQuantity=" + availableQuantity +
+                ", threshold=" + threshold +
+                '}';
+    }
+}
@@ -0,0 +1,87 @@
+package com.commerce.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.UUID;
+
+/**
+ * Response DTO for one product search result.
+ */
+public class ProductSearchHit {
+
+    @JsonProperty("productId")
+    private UUID productId;
+
+    @JsonProperty("sku")
+    private String sku;
+
+    @JsonProperty("productName")
+    private String productName;
+
+    @JsonProperty("category")
+    private String category;
+
+    @JsonProperty("score")
+    private Float score;
+
+    // Constructors
+    public ProductSearchHit() {}
+
+    public ProductSearchHit(UUID productId, String sku, String productName, String category, Float score) {
+        this.productId = productId;
+        this.sku = sku;
+        this.productName = productName;
+        this.category = category;
+        this.score = score;
+    }
+
+    // Getters and Setters
+    public UUID getProductId() {
+        return productId;
+    }
+
+    public void setProductId(UUID productId) {
+        this.productId = productId;
+    }
+
+    public String getSku() {
+        return sku;
+    }
+
+    public void setSku(String sku) {
+        this.sku = sku;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public void setProductName(String productName) {
+        this.productName = productName;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public Float getScore() {
+        return score;
+    }
+
+    public void setScore(Float score) {
+        this.score = score;
+    }
+
+    @Override
+    public String toString() {
+        return "ProductSearchHit{" +
+                "productId=" + productId +
+                ", sku='" + sku + '\'' +
+                ", score=" + score +
+                '}';
+    }
+}
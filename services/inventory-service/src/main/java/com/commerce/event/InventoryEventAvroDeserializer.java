@@ -0,0 +1,37 @@
+package com.commerce.event;
+
+import java.io.IOException;
+
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+/**
+ * Kafka deserializer for payloads written by {@link InventoryEventAvroSerializer}.
+ */
+public class InventoryEventAvroDeserializer implements Deserializer<InventoryEvent> {
+
+    private final GenericDatumReader<GenericRecord> reader = new GenericDatumReader<>(InventoryEventSchema.SCHEMA);
+
+    @Override
+    public InventoryEvent deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (data.length < InventoryEventSchema.HEADER_LENGTH
+                || data[0] != InventoryEventSchema.MAGIC
+                || data[1] != InventoryEventSchema.VERSION) {
+            throw new SerializationException("Unknown inventory event encoding on topic " + topic);
+        }
+        try {
+            BinaryDecoder decoder = DecoderFactory.get().binaryDecoder(
+                data, InventoryEventSchema.HEADER_LENGTH, data.length - InventoryEventSchema.HEADER_LENGTH, null);
+            return InventoryEventSchema.fromRecord(reader.read(null, decoder));
+        } catch (IOException e) {
+            throw new SerializationException("Could not deserialize inventory event from topic " + topic, e);
+        }
+    }
+}
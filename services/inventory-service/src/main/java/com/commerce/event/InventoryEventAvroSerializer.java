@@ -0,0 +1,38 @@
+package com.commerce.event;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Kafka serializer writing {@link InventoryEvent} as Avro binary (see {@link InventoryEventSchema}).
+ * UUIDs are 16 raw bytes and the timestamp is epoch millis, roughly a quarter of the JSON size.
+ */
+public class InventoryEventAvroSerializer implements Serializer<InventoryEvent> {
+
+    private final GenericDatumWriter<GenericRecord> writer = new GenericDatumWriter<>(InventoryEventSchema.SCHEMA);
+
+    @Override
+    public byte[] serialize(String topic, InventoryEvent data) {
+        if (data == null) {
+            return null;
+        }
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(96);
+            out.write(InventoryEventSchema.MAGIC);
+            out.write(InventoryEventSchema.VERSION);
+            BinaryEncoder encoder = EncoderFactory.get().directBinaryEncoder(out, null);
+            writer.write(InventoryEventSchema.toRecord(data), encoder);
+            encoder.flush();
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new SerializationException("Could not serialize inventory event for topic " + topic, e);
+        }
+    }
+}
@@ -1,22 +1,58 @@
 package com.commerce.event;
 
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.kafka.core.KafkaTemplate;
+import java.util.ArrayList;
+import java.util.List;
+
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.commerce.model.OutboxEvent;
+import com.commerce.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
+/**
+ * Records inventory events in the outbox as part of the caller's transaction.
+ * {@link OutboxRelay} sends them to Kafka once committed, so a rollback never emits an event
+ * and broker latency stays off the request path.
+ */
 @Component
 public class InventoryEventPublisher {
-    private final KafkaTemplate<String, InventoryEvent> template;
-    private final String topic;
-
-    public InventoryEventPublisher(
-            KafkaTemplate<String, InventoryEvent> template,
-            @Value("${inventory.events.topic:inventory-events}") String topic) {
-        this.template = template;
-        this.topic = topic;
+
+    static final String AGGREGATE_TYPE = "Inventory";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    public InventoryEventPublisher(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
     }
 
+    @Transactional(propagation = Propagation.MANDATORY)
     public void publish(InventoryEvent evt) {
-        template.send(topic, evt.getProductId().toString(), evt);
+        outboxEventRepository.save(toOutboxEvent(evt));
+    }
+
+    /**
+     * Record many events with one batched insert, for bulk changes.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publishAll(List<InventoryEvent> events) {
+        List<OutboxEvent> rows = new ArrayList<>(events.size());
+        for (InventoryEvent evt : events) {
+            rows.add(toOutboxEvent(evt));
+        }
+        outboxEventRepository.saveAll(rows);
+    }
+
+    private OutboxEvent toOutboxEvent(InventoryEvent evt) {
+        try {
+            return new OutboxEvent(
+                evt.getProductId(), AGGREGATE_TYPE, evt.getEventType(), objectMapper.writeValueAsString(evt));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize inventory event: " + evt.getEventType(), e);
+        }
     }
 }
@@ -0,0 +1,86 @@
+package com.commerce.event;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+
+/**
+ * Avro schema for {@link InventoryEvent}, loaded from {@code avro/inventory-event.avsc} on the classpath.
+ * No schema registry is involved: every payload starts with a magic byte and the schema version,
+ * so consumers can pick the matching local schema.
+ */
+final class InventoryEventSchema {
+
+    static final byte MAGIC = 0x00;
+    static final byte VERSION = 1;
+    static final int HEADER_LENGTH = 2;
+
+    static final Schema SCHEMA = load();
+    private static final Schema UUID_SCHEMA = SCHEMA.getField("productId").schema();
+
+    private InventoryEventSchema() {
+    }
+
+    private static Schema load() {
+        try (InputStream in = InventoryEventSchema.class.getResourceAsStream("/avro/inventory-event.avsc")) {
+            if (in == null) {
+                throw new IllegalStateException("avro/inventory-event.avsc not found on classpath");
+            }
+            return new Schema.Parser().parse(in);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not load inventory event schema", e);
+        }
+    }
+
+    static GenericRecord toRecord(InventoryEvent event) {
+        GenericRecord record = new GenericData.Record(SCHEMA);
+        record.put("eventType", event.getEventType());
+        record.put("productId", toFixed(event.getProductId()));
+        record.put("sku", event.getSku());
+        record.put("quantity", orZero(event.getQuantity()));
+        record.put("reservedQuantity", orZero(event.getReservedQuantity()));
+        record.put("availableQuantity", orZero(event.getAvailableQuantity()));
+        record.put("orderId", event.getOrderId() == null ? null : toFixed(event.getOrderId()));
+        record.put("timestamp", event.getTimestamp().toInstant(ZoneOffset.UTC).toEpochMilli());
+        return record;
+    }
+
+    static InventoryEvent fromRecord(GenericRecord record) {
+        Object orderId = record.get("orderId");
+        Object sku = record.get("sku");
+        InventoryEvent event = new InventoryEvent(
+            record.get("eventType").toString(),
+            fromFixed((GenericData.Fixed) record.get("productId")),
+            sku == null ? null : sku.toString(),
+            (Integer) record.get("quantity"),
+            (Integer) record.get("reservedQuantity"),
+            (Integer) record.get("availableQuantity"),
+            orderId == null ? null : fromFixed((GenericData.Fixed) orderId)
+        );
+        event.setTimestamp(LocalDateTime.ofInstant(Instant.ofEpochMilli((Long) record.get("timestamp")), ZoneOffset.UTC));
+        return event;
+    }
+
+    private static GenericData.Fixed toFixed(UUID uuid) {
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        buffer.putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits());
+        return new GenericData.Fixed(UUID_SCHEMA, buffer.array());
+    }
+
+    private static UUID fromFixed(GenericData.Fixed fixed) {
+        ByteBuffer buffer = ByteBuffer.wrap(fixed.bytes());
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    private static int orZero(Integer value) {
+        return value == null ? 0 : value;
+    }
+}
@@ -0,0 +1,128 @@
+package com.commerce.event;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.commerce.model.OutboxEvent;
+import com.commerce.repository.OutboxEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Drains the outbox to Kafka in batches. Each batch is locked with {@code FOR UPDATE SKIP LOCKED},
+ * sent, acknowledged by the broker, and marked processed in one statement before the locks are released.
+ * A failed send rolls the batch back so it is retried (at-least-once delivery).
+ *
+ * <p>Within one relay events leave in creation order; with several relays running, events of the
+ * same product may be relayed by different instances.
+ */
+@Component
+@ConditionalOnProperty(name = "commerce.inventory.outbox.relay-enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final KafkaTemplate<String, InventoryEvent> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final String topic;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final long sendTimeoutMs;
+    private final Duration retention;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       KafkaTemplate<String, InventoryEvent> kafkaTemplate,
+                       ObjectMapper objectMapper,
+                       TransactionTemplate transactionTemplate,
+                       @Value("${inventory.events.topic:inventory-events}") String topic,
+                       @Value("${commerce.inventory.outbox.batch-size:500}") int batchSize,
+                       @Value("${commerce.inventory.outbox.max-batches-per-run:20}") int maxBatchesPerRun,
+                       @Value("${commerce.inventory.outbox.send-timeout-ms:10000}") long sendTimeoutMs,
+                       @Value("${commerce.inventory.outbox.retention:24h}") Duration retention) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.topic = topic;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.sendTimeoutMs = sendTimeoutMs;
+        this.retention = retention;
+    }
+
+    /**
+     * Relay full batches back to back until the outbox is drained or the per-run limit is hit.
+     */
+    @Scheduled(fixedDelayString = "${commerce.inventory.outbox.poll-interval-ms:100}")
+    public void relay() {
+        try {
+            for (int i = 0; i < maxBatchesPerRun; i++) {
+                Integer relayed = transactionTemplate.execute(status -> relayBatch());
+                if (relayed == null || relayed < batchSize) {
+                    return;
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Outbox relay failed, batch will be retried", e);
+        }
+    }
+
+    /**
+     * Delete relayed events past the retention period.
+     */
+    @Scheduled(fixedDelayString = "${commerce.inventory.outbox.purge-interval-ms:3600000}")
+    public void purge() {
+        Integer deleted = transactionTemplate.execute(status ->
+                outboxEventRepository.deleteProcessedBefore(LocalDateTime.now().minus(retention)));
+        if (deleted != null && deleted > 0) {
+            logger.info("Purged {} relayed outbox events", deleted);
+        }
+    }
+
+    private int relayBatch() {
+        List<OutboxEvent> batch = outboxEventRepository.lockUnprocessed(batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        List<UUID> ids = new ArrayList<>(batch.size());
+        List<CompletableFuture<?>> sends = new ArrayList<>(batch.size());
+        for (OutboxEvent outboxEvent : batch) {
+            ids.add(outboxEvent.getId());
+            InventoryEvent event;
+            try {
+                event = objectMapper.readValue(outboxEvent.getEventData(), InventoryEvent.class);
+            } catch (Exception e) {
+                // A row that cannot be decoded would block the outbox forever; skip it
+                logger.error("Skipping undecodable outbox event: {}", outboxEvent, e);
+                continue;
+            }
+            sends.add(kafkaTemplate.send(topic, outboxEvent.getAggregateId().toString(), event));
+        }
+
+        try {
+            CompletableFuture.allOf(sends.toArray(new CompletableFuture<?>[0])).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            throw new IllegalStateException("Kafka did not acknowledge outbox batch of " + batch.size(), e);
+        }
+
+        outboxEventRepository.markProcessed(ids, LocalDateTime.now());
+        logger.debug("Relayed {} outbox events", batch.size());
+        return batch.size();
+    }
+}
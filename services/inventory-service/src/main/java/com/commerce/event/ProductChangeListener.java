@@ -0,0 +1,37 @@
+package com.commerce.event;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import com.commerce.model.Product;
+import com.commerce.search.ProductDocument;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * JPA entity listener turning product writes into {@link ProductChangedEvent}s.
+ * Consumers apply them after commit, so rolled back writes never reach them.
+ */
+@Component
+public class ProductChangeListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ProductChangeListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Product product) {
+        eventPublisher.publishEvent(new ProductChangedEvent(
+            product.getId(), ProductDocument.fromProduct(product), product.getPrice()));
+    }
+
+    @PostRemove
+    public void onRemove(Product product) {
+        eventPublisher.publishEvent(new ProductChangedEvent(product.getId(), null, null));
+    }
+}
@@ -0,0 +1,19 @@
+package com.commerce.event;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import com.commerce.search.ProductDocument;
+
+/**
+ * Published when a product is saved or deleted through JPA.
+ *
+ * @param document the new searchable fields, or null when the product was deleted
+ * @param price    the new price, or null when the product was deleted
+ */
+public record ProductChangedEvent(UUID productId, ProductDocument document, BigDecimal price) {
+
+    public boolean deleted() {
+        return document == null;
+    }
+}
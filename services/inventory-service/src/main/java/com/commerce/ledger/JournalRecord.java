@@ -0,0 +1,65 @@
+package com.commerce.ledger;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * One accepted stock change in the reservation journal, stored as signed deltas
+ * so replay can be applied on top of whatever the database last persisted.
+ *
+ * <p>Fixed 53-byte layout: seq (8), type (1), productId (16), quantityDelta (4),
+ * reservedDelta (4), orderId (16, zero when absent), CRC32 of the preceding bytes (4).
+ */
+record JournalRecord(long seq, byte type, UUID productId, int quantityDelta, int reservedDelta, UUID orderId) {
+
+    static final int SIZE = 53;
+
+    static final byte RESERVE = 1;
+    static final byte RELEASE = 2;
+    static final byte CONFIRM = 3;
+    static final byte SET_QUANTITY = 4;
+    static final byte COMPENSATE = 5;
+
+    void writeTo(ByteBuffer buffer) {
+        int start = buffer.position();
+        buffer.putLong(seq);
+        buffer.put(type);
+        buffer.putLong(productId.getMostSignificantBits());
+        buffer.putLong(productId.getLeastSignificantBits());
+        buffer.putInt(quantityDelta);
+        buffer.putInt(reservedDelta);
+        buffer.putLong(orderId != null ? orderId.getMostSignificantBits() : 0L);
+        buffer.putLong(orderId != null ? orderId.getLeastSignificantBits() : 0L);
+        buffer.putInt(checksum(buffer, start));
+    }
+
+    /**
+     * Read the next record, or null if the remaining bytes are a torn or corrupt tail.
+     */
+    static JournalRecord readFrom(ByteBuffer buffer) {
+        if (buffer.remaining() < SIZE) {
+            return null;
+        }
+        int start = buffer.position();
+        long seq = buffer.getLong();
+        byte type = buffer.get();
+        UUID productId = new UUID(buffer.getLong(), buffer.getLong());
+        int quantityDelta = buffer.getInt();
+        int reservedDelta = buffer.getInt();
+        long orderMsb = buffer.getLong();
+        long orderLsb = buffer.getLong();
+        int expected = checksum(buffer, start);
+        if (buffer.getInt() != expected) {
+            return null;
+        }
+        UUID orderId = orderMsb == 0L && orderLsb == 0L ? null : new UUID(orderMsb, orderLsb);
+        return new JournalRecord(seq, type, productId, quantityDelta, reservedDelta, orderId);
+    }
+
+    private static int checksum(ByteBuffer buffer, int start) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().position(start).limit(buffer.position()));
+        return (int) crc.getValue();
+    }
+}
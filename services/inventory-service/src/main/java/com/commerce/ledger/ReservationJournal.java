@@ -0,0 +1,190 @@
+package com.commerce.ledger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Append-only local journal of accepted ledger changes with group commit:
+ * appends are cheap buffered writes, and {@link #awaitDurable(long)} lets whichever caller
+ * gets the sync lock first fsync everything written so far on behalf of all waiters.
+ *
+ * <p>Appends synchronize on this object; callers that need other state to change atomically
+ * with an append (the ledger's pending deltas) hold the same monitor. Rewrites take the sync lock
+ * before the monitor, and syncing never takes the monitor, so the two cannot deadlock.
+ */
+class ReservationJournal implements Closeable {
+
+    private final Path path;
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private volatile FileChannel channel;
+    private long nextSeq;
+    private volatile long writtenSeq;
+    private volatile long durableSeq;
+
+    ReservationJournal(Path path) {
+        this.path = path;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    /**
+     * Read every intact record, stopping at the first torn or corrupt one.
+     */
+    static List<JournalRecord> readAll(Path path) throws IOException {
+        List<JournalRecord> records = new ArrayList<>();
+        if (!Files.exists(path)) {
+            return records;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        JournalRecord record;
+        while ((record = JournalRecord.readFrom(buffer)) != null) {
+            records.add(record);
+        }
+        return records;
+    }
+
+    /**
+     * Open for appending; sequences continue after {@code lastSeq}. Existing intact records are kept.
+     */
+    void open(long lastSeq, List<JournalRecord> retained) throws IOException {
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        syncLock.lock();
+        try {
+            synchronized (this) {
+                rewrite(retained);
+                nextSeq = lastSeq + 1;
+                writtenSeq = lastSeq;
+                durableSeq = lastSeq;
+            }
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Append a record and return its sequence number. Not yet durable.
+     */
+    synchronized long append(byte type, UUID productId, int quantityDelta, int reservedDelta, UUID orderId) {
+        long seq = nextSeq++;
+        ByteBuffer buffer = ByteBuffer.allocate(JournalRecord.SIZE);
+        new JournalRecord(seq, type, productId, quantityDelta, reservedDelta, orderId).writeTo(buffer);
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append to reservation journal " + path, e);
+        }
+        writtenSeq = seq;
+        return seq;
+    }
+
+    /**
+     * Highest sequence handed out so far.
+     */
+    long writtenSeq() {
+        return writtenSeq;
+    }
+
+    /**
+     * Block until the record with the given sequence is on stable storage.
+     */
+    void awaitDurable(long seq) {
+        if (durableSeq >= seq) {
+            return;
+        }
+        syncLock.lock();
+        try {
+            if (durableSeq >= seq) {
+                return;
+            }
+            long target = writtenSeq;
+            channel.force(false);
+            durableSeq = target;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to sync reservation journal " + path, e);
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Drop records up to {@code persistedSeq} once the database holds them, keeping the rest.
+     * Only rewrites when the file has grown past {@code thresholdBytes}.
+     */
+    void compact(long persistedSeq, long thresholdBytes) throws IOException {
+        if (channel.size() < thresholdBytes) {
+            return;
+        }
+        syncLock.lock();
+        try {
+            synchronized (this) {
+                channel.force(false);
+                durableSeq = writtenSeq;
+                List<JournalRecord> retained = new ArrayList<>();
+                for (JournalRecord record : readAll(path)) {
+                    if (record.seq() > persistedSeq) {
+                        retained.add(record);
+                    }
+                }
+                rewrite(retained);
+            }
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Atomically replace the journal with the given records and reopen it for appending.
+     * Caller holds the sync lock and the monitor.
+     */
+    private void rewrite(List<JournalRecord> records) throws IOException {
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(Math.max(1, records.size()) * JournalRecord.SIZE);
+            for (JournalRecord record : records) {
+                record.writeTo(buffer);
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            out.force(true);
+        }
+        if (channel != null) {
+            channel.close();
+        }
+        Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public void close() throws IOException {
+        syncLock.lock();
+        try {
+            synchronized (this) {
+                if (channel != null) {
+                    channel.force(false);
+                    channel.close();
+                }
+            }
+        } finally {
+            syncLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package com.commerce.ledger;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongUnaryOperator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.commerce.service.StockLevel;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * In-process reservation engine for launch-day SKUs. Quantity and reserved counts live in one
+ * packed {@link AtomicLong} per product, so admission is a lock-free CAS with no database round trip.
+ * Every accepted change is appended to a local journal and fsynced (group commit) before the caller
+ * is answered, and the coalesced per-product deltas are written behind to the {@code inventory}
+ * table in JDBC batches together with the journal position they cover.
+ *
+ * <p>On startup, counters touched by journal records newer than the persisted checkpoint are rebuilt
+ * from Postgres plus those records; all other products are loaded lazily on first use.
+ *
+ * <p>The ledger is authoritative for the products routed to it, so those products must be served
+ * by a single instance (or sharded by productId across instances).
+ */
+@Component
+@ConditionalOnProperty(name = "commerce.inventory.ledger.enabled", havingValue = "true")
+public class ReservationLedger {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReservationLedger.class);
+
+    private static final String LOAD_SQL =
+            "SELECT i.quantity, i.reserved_quantity, p.sku FROM inventory i " +
+            "JOIN products p ON p.id = i.product_id WHERE i.product_id = ?";
+    private static final String APPLY_DELTA_SQL =
+            "UPDATE inventory SET quantity = quantity + ?, reserved_quantity = reserved_quantity + ?, " +
+            "version = version + 1 WHERE product_id = ?";
+    private static final String CHECKPOINT_SQL =
+            "INSERT INTO reservation_ledger_checkpoint (id, last_seq) VALUES (1, ?) " +
+            "ON CONFLICT (id) DO UPDATE SET last_seq = EXCLUDED.last_seq";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ReservationJournal journal;
+    private final long compactThresholdBytes;
+    private final Map<UUID, Counter> counters = new ConcurrentHashMap<>();
+    private final Set<Counter> dirty = ConcurrentHashMap.newKeySet();
+
+    public ReservationLedger(JdbcTemplate jdbcTemplate,
+                             TransactionTemplate transactionTemplate,
+                             @Value("${commerce.inventory.ledger.journal-path:data/reservation-ledger.journal}") Path journalPath,
+                             @Value("${commerce.inventory.ledger.compact-threshold-bytes:1048576}") long compactThresholdBytes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.journal = new ReservationJournal(journalPath);
+        this.compactThresholdBytes = compactThresholdBytes;
+    }
+
+    /**
+     * Live counters of one product. Deltas not yet written behind are guarded by the journal monitor.
+     */
+    private static final class Counter {
+
+        final UUID productId;
+        final String sku;
+        final AtomicLong levels;
+        int pendingQuantity;
+        int pendingReserved;
+
+        Counter(UUID productId, String sku, int quantity, int reservedQuantity) {
+            this.productId = productId;
+            this.sku = sku;
+            this.levels = new AtomicLong(pack(quantity, reservedQuantity));
+        }
+
+        StockLevel level() {
+            long packed = levels.get();
+            return new StockLevel(productId, sku, quantityOf(packed), reservedOf(packed));
+        }
+    }
+
+    @PostConstruct
+    void recover() throws IOException {
+        long checkpoint = persistedCheckpoint();
+        List<JournalRecord> records = ReservationJournal.readAll(journal.path());
+        long lastSeq = checkpoint;
+
+        List<JournalRecord> unpersisted = new ArrayList<>();
+        for (JournalRecord record : records) {
+            lastSeq = Math.max(lastSeq, record.seq());
+            if (record.seq() > checkpoint) {
+                unpersisted.add(record);
+            }
+        }
+
+        for (JournalRecord record : unpersisted) {
+            Counter counter = counter(record.productId());
+            if (counter == null) {
+                logger.warn("Skipping journal record {} for unknown product: {}", record.seq(), record.productId());
+                continue;
+            }
+            counter.levels.getAndUpdate(packed -> pack(quantityOf(packed) + record.quantityDelta(),
+                                                       reservedOf(packed) + record.reservedDelta()));
+            counter.pendingQuantity += record.quantityDelta();
+            counter.pendingReserved += record.reservedDelta();
+            dirty.add(counter);
+        }
+
+        journal.open(lastSeq, unpersisted);
+        logger.info("Reservation ledger recovered: checkpoint={}, replayed={} records across {} products",
+                   checkpoint, unpersisted.size(), dirty.size());
+    }
+
+    /**
+     * Move quantity from available to reserved if enough is available.
+     */
+    public Optional<StockLevel> reserve(UUID productId, int quantity, UUID orderId) {
+        return apply(productId, JournalRecord.RESERVE, orderId, packed -> {
+            int total = quantityOf(packed);
+            int reserved = reservedOf(packed);
+            return total - reserved >= quantity ? pack(total, reserved + quantity) : packed;
+        });
+    }
+
+    /**
+     * Return reserved quantity to available if enough is reserved.
+     */
+    public Optional<StockLevel> release(UUID productId, int quantity, UUID orderId) {
+        return apply(productId, JournalRecord.RELEASE, orderId, packed -> {
+            int reserved = reservedOf(packed);
+            return reserved >= quantity ? pack(quantityOf(packed), reserved - quantity) : packed;
+        });
+    }
+
+    /**
+     * Convert reserved quantity to sold if enough is reserved.
+     */
+    public Optional<StockLevel> confirm(UUID productId, int quantity, UUID orderId) {
+        return apply(productId, JournalRecord.CONFIRM, orderId, packed -> {
+            int reserved = reservedOf(packed);
+            return reserved >= quantity ? pack(quantityOf(packed) - quantity, reserved - quantity) : packed;
+        });
+    }
+
+    /**
+     * Overwrite the on-hand quantity.
+     */
+    public Optional<StockLevel> setQuantity(UUID productId, int quantity) {
+        return apply(productId, JournalRecord.SET_QUANTITY, null, packed -> pack(quantity, reservedOf(packed)));
+    }
+
+    /**
+     * Unconditionally apply deltas, used to undo a change whose surrounding transaction rolled back.
+     */
+    public void compensate(UUID productId, int quantityDelta, int reservedDelta, UUID orderId) {
+        apply(productId, JournalRecord.COMPENSATE, orderId,
+              packed -> pack(quantityOf(packed) + quantityDelta, reservedOf(packed) + reservedDelta));
+    }
+
+    /**
+     * Current in-memory counters, loading the product into the ledger if needed.
+     */
+    public Optional<StockLevel> current(UUID productId) {
+        Counter counter = counter(productId);
+        return counter != null ? Optional.of(counter.level()) : Optional.empty();
+    }
+
+    /**
+     * Write coalesced deltas behind to Postgres along with the journal position they cover.
+     */
+    @Scheduled(fixedDelayString = "${commerce.inventory.ledger.flush-interval-ms:50}")
+    public void flush() {
+        List<Object[]> batch = new ArrayList<>();
+        Map<Counter, int[]> drained = new HashMap<>();
+        long coveredSeq;
+
+        synchronized (journal) {
+            for (Counter counter : dirty) {
+                if (counter.pendingQuantity != 0 || counter.pendingReserved != 0) {
+                    drained.put(counter, new int[] {counter.pendingQuantity, counter.pendingReserved});
+                    batch.add(new Object[] {counter.pendingQuantity, counter.pendingReserved, counter.productId});
+                    counter.pendingQuantity = 0;
+                    counter.pendingReserved = 0;
+                }
+            }
+            dirty.clear();
+            coveredSeq = journal.writtenSeq();
+        }
+
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            // Never persist a change whose journal record could still be lost
+            journal.awaitDurable(coveredSeq);
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(APPLY_DELTA_SQL, batch);
+                jdbcTemplate.update(CHECKPOINT_SQL, coveredSeq);
+            });
+            journal.compact(coveredSeq, compactThresholdBytes);
+            logger.debug("Ledger flushed {} products up to journal seq {}", batch.size(), coveredSeq);
+
+        } catch (Exception e) {
+            logger.error("Ledger write-behind failed, will retry {} products", batch.size(), e);
+            synchronized (journal) {
+                drained.forEach((counter, deltas) -> {
+                    counter.pendingQuantity += deltas[0];
+                    counter.pendingReserved += deltas[1];
+                    dirty.add(counter);
+                });
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws IOException {
+        flush();
+        journal.close();
+    }
+
+    /**
+     * CAS the counters, then journal the change and wait until it is durable.
+     */
+    private Optional<StockLevel> apply(UUID productId, byte type, UUID orderId, LongUnaryOperator update) {
+        Counter counter = counter(productId);
+        if (counter == null) {
+            return Optional.empty();
+        }
+
+        long before;
+        long after;
+        do {
+            before = counter.levels.get();
+            after = update.applyAsLong(before);
+            if (after == before && type != JournalRecord.SET_QUANTITY && type != JournalRecord.COMPENSATE) {
+                return Optional.empty();
+            }
+        } while (!counter.levels.compareAndSet(before, after));
+
+        int quantityDelta = quantityOf(after) - quantityOf(before);
+        int reservedDelta = reservedOf(after) - reservedOf(before);
+
+        long seq;
+        try {
+            synchronized (journal) {
+                seq = journal.append(type, productId, quantityDelta, reservedDelta, orderId);
+                counter.pendingQuantity += quantityDelta;
+                counter.pendingReserved += reservedDelta;
+                dirty.add(counter);
+            }
+        } catch (RuntimeException e) {
+            // Not journaled, so not accepted: take the change back out of memory
+            counter.levels.getAndUpdate(packed -> pack(quantityOf(packed) - quantityDelta,
+                                                       reservedOf(packed) - reservedDelta));
+            throw e;
+        }
+
+        try {
+            journal.awaitDurable(seq);
+        } catch (RuntimeException e) {
+            // Not durable, so not accepted either: take the change back out of memory, and journal
+            // the reversal in case the record still reaches disk with a later sync
+            counter.levels.getAndUpdate(packed -> pack(quantityOf(packed) - quantityDelta,
+                                                       reservedOf(packed) - reservedDelta));
+            synchronized (journal) {
+                try {
+                    journal.append(JournalRecord.COMPENSATE, productId, -quantityDelta, -reservedDelta, orderId);
+                } catch (RuntimeException reversalFailure) {
+                    e.addSuppressed(reversalFailure);
+                }
+                counter.pendingQuantity -= quantityDelta;
+                counter.pendingReserved -= reservedDelta;
+            }
+            throw e;
+        }
+        return Optional.of(new StockLevel(productId, counter.sku, quantityOf(after), reservedOf(after)));
+    }
+
+    private Counter counter(UUID productId) {
+        return counters.computeIfAbsent(productId, id -> jdbcTemplate.query(LOAD_SQL,
+                rs -> rs.next() ? new Counter(id, rs.getString(3), rs.getInt(1), rs.getInt(2)) : null, id));
+    }
+
+    private long persistedCheckpoint() {
+        List<Long> seqs = jdbcTemplate.queryForList(
+                "SELECT last_seq FROM reservation_ledger_checkpoint WHERE id = 1", Long.class);
+        return seqs.isEmpty() ? 0L : seqs.get(0);
+    }
+
+    private static long pack(int quantity, int reservedQuantity) {
+        return ((long) quantity << 32) | (reservedQuantity & 0xFFFFFFFFL);
+    }
+
+    private static int quantityOf(long packed) {
+        return (int) (packed >> 32);
+    }
+
+    private static int reservedOf(long packed) {
+        return (int) packed;
+    }
+}
@@ -32,6 +32,12 @@ public class Inventory {
     @Min(value = 0, message = "Reserved quantity cannot be negative")
     private Integer reservedQuantity = 0;
 
+    /**
+     * True while the stock is held in escrow buckets; the row is then only a rollup.
+     */
+    @Column(nullable = false)
+    private boolean split;
+
     @Version
     @Column(nullable = false)
     private Integer version = 0;
@@ -139,6 +145,14 @@ public class Inventory {
         this.reservedQuantity = reservedQuantity;
     }
 
+    public boolean isSplit() {
+        return split;
+    }
+
+    public void setSplit(boolean split) {
+        this.split = split;
+    }
+
     public Integer getVersion() {
         return version;
     }
@@ -0,0 +1,134 @@
+package com.commerce.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import java.io.Serializable;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * One partition (escrow bucket) of a split product's stock.
+ * While a product is split, its buckets hold the authoritative counters and the
+ * {@link Inventory} row is a periodically refreshed rollup.
+ */
+@Entity
+@Table(name = "inventory_buckets")
+@IdClass(InventoryBucket.Key.class)
+public class InventoryBucket {
+
+    @Id
+    @Column(name = "product_id")
+    private UUID productId;
+
+    @Id
+    @Column(name = "bucket")
+    private Integer bucket;
+
+    @Column(nullable = false)
+    @NotNull(message = "Quantity cannot be null")
+    private Integer quantity;
+
+    @Column(name = "reserved_quantity", nullable = false)
+    @NotNull(message = "Reserved quantity cannot be null")
+    private Integer reservedQuantity = 0;
+
+    @Version
+    @Column(nullable = false)
+    private Integer version = 0;
+
+    // Constructors
+    public InventoryBucket() {}
+
+    public InventoryBucket(UUID productId, Integer bucket, Integer quantity, Integer reservedQuantity) {
+        this.productId = productId;
+        this.bucket = bucket;
+        this.quantity = quantity;
+        this.reservedQuantity = reservedQuantity;
+    }
+
+    /**
+     * Get available quantity (total - reserved).
+     */
+    public Integer getAvailableQuantity() {
+        return quantity - reservedQuantity;
+    }
+
+    // Getters and Setters
+    public UUID getProductId() {
+        return productId;
+    }
+
+    public void setProductId(UUID productId) {
+        this.productId = productId;
+    }
+
+    public Integer getBucket() {
+        return bucket;
+    }
+
+    public void setBucket(Integer bucket) {
+        this.bucket = bucket;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+
+    public Integer getReservedQuantity() {
+        return reservedQuantity;
+    }
+
+    public void setReservedQuantity(Integer reservedQuantity) {
+        this.reservedQuantity = reservedQuantity;
+    }
+
+    public Integer getVersion() {
+        return version;
+    }
+
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
+
+    @Override
+    public String toString() {
+        return "InventoryBucket{" +
+                "productId=" + productId +
+                ", bucket=" + bucket +
+                ", quantity=" + quantity +
+                ", reservedQuantity=" + reservedQuantity +
+                '}';
+    }
+
+    /**
+     * Composite primary key.
+     */
+    public static class Key implements Serializable {
+
+        private UUID productId;
+        private Integer bucket;
+
+        public Key() {}
+
+        public Key(UUID productId, Integer bucket) {
+            this.productId = productId;
+            this.bucket = bucket;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key key)) return false;
+            return Objects.equals(productId, key.productId) && Objects.equals(bucket, key.bucket);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(productId, bucket);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.commerce.model;
 
+import com.commerce.event.ProductChangeListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
@@ -13,6 +14,7 @@ import java.util.UUID;
  * Product entity representing items in the catalog.
  */
 @Entity
+@EntityListeners(ProductChangeListener.class)
 @Table(name = "products", indexes = {
     @Index(name = "idx_products_sku", columnList = "sku"),
     @Index(name = "idx_products_category", columnList = "category")
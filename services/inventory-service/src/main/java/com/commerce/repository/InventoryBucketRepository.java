@@ -0,0 +1,96 @@
+package com.commerce.repository;
+
+import com.commerce.model.InventoryBucket;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.LockModeType;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository for split-counter buckets.
+ */
+@Repository
+public interface InventoryBucketRepository extends JpaRepository<InventoryBucket, InventoryBucket.Key> {
+
+    /**
+     * Reserve from one bucket if it has enough available stock.
+     */
+    @Modifying
+    @Query(value = "UPDATE inventory_buckets SET reserved_quantity = reserved_quantity + :quantity, version = version + 1 " +
+                   "WHERE product_id = :productId AND bucket = :bucket AND (quantity - reserved_quantity) >= :quantity",
+           nativeQuery = true)
+    int reserveInBucket(@Param("productId") UUID productId, @Param("bucket") int bucket, @Param("quantity") int quantity);
+
+    /**
+     * Release reserved stock from one bucket if it holds enough.
+     */
+    @Modifying
+    @Query(value = "UPDATE inventory_buckets SET reserved_quantity = reserved_quantity - :quantity, version = version + 1 " +
+                   "WHERE product_id = :productId AND bucket = :bucket AND reserved_quantity >= :quantity",
+           nativeQuery = true)
+    int releaseInBucket(@Param("productId") UUID productId, @Param("bucket") int bucket, @Param("quantity") int quantity);
+
+    /**
+     * Confirm an allocation against one bucket if it holds enough reserved stock.
+     */
+    @Modifying
+    @Query(value = "UPDATE inventory_buckets SET quantity = quantity - :quantity, " +
+                   "reserved_quantity = reserved_quantity - :quantity, version = version + 1 " +
+                   "WHERE product_id = :productId AND bucket = :bucket AND reserved_quantity >= :quantity",
+           nativeQuery = true)
+    int confirmInBucket(@Param("productId") UUID productId, @Param("bucket") int bucket, @Param("quantity") int quantity);
+
+    /**
+     * Lock all buckets of a product in bucket order.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM InventoryBucket b WHERE b.productId = :productId ORDER BY b.bucket")
+    List<InventoryBucket> findByProductIdForUpdate(@Param("productId") UUID productId);
+
+    /**
+     * Aggregated quantity and reserved quantity of a product's buckets, with the row version and
+     * the sum of bucket versions read in the same statement.
+     */
+    @Query(value = "SELECT SUM(b.quantity), SUM(b.reserved_quantity), MAX(i.version), SUM(b.version) " +
+                   "FROM inventory_buckets b JOIN inventory i ON i.product_id = b.product_id " +
+                   "WHERE b.product_id = :productId",
+           nativeQuery = true)
+    List<Object[]> sumByProductId(@Param("productId") UUID productId);
+
+    /**
+     * Bucket count per split product.
+     */
+    @Query("SELECT b.productId, COUNT(b) FROM InventoryBucket b GROUP BY b.productId")
+    List<Object[]> countBucketsByProduct();
+
+    /**
+     * Number of buckets of one product; 0 when it is not split.
+     */
+    long countByProductId(UUID productId);
+
+    /**
+     * Remove all buckets of a product.
+     */
+    @Modifying
+    @Query("DELETE FROM InventoryBucket b WHERE b.productId = :productId")
+    int deleteByProductId(@Param("productId") UUID productId);
+
+    /**
+     * Refresh the inventory rollup rows of split products from their buckets.
+     */
+    @Modifying
+    @Query(value = "UPDATE inventory i SET quantity = b.quantity, reserved_quantity = b.reserved_quantity, " +
+                   "version = i.version + 1 " +
+                   "FROM (SELECT product_id, SUM(quantity) AS quantity, SUM(reserved_quantity) AS reserved_quantity " +
+                   "      FROM inventory_buckets GROUP BY product_id) b " +
+                   "WHERE i.product_id = b.product_id " +
+                   "AND (i.quantity <> b.quantity OR i.reserved_quantity <> b.reserved_quantity)",
+           nativeQuery = true)
+    int foldIntoInventory();
+}
@@ -1,17 +1,21 @@
 package com.commerce.repository;
 
 import com.commerce.model.Inventory;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Repository for inventory operations with optimistic locking support.
@@ -31,12 +35,64 @@ public interface InventoryRepository extends JpaRepository<Inventory, UUID> {
     @Query("SELECT i FROM Inventory i JOIN FETCH i.product p WHERE p.sku = :sku")
     Optional<Inventory> findByProductSku(@Param("sku") String sku);
 
+    /**
+     * First keyset page ordered by product ID.
+     */
+    @Query("SELECT i FROM Inventory i JOIN FETCH i.product ORDER BY i.productId")
+    List<Inventory> findFirstPageByProductId(Pageable pageable);
+
+    /**
+     * Keyset page of products after the given product ID, walking the primary key index.
+     */
+    @Query("SELECT i FROM Inventory i JOIN FETCH i.product WHERE i.productId > :after ORDER BY i.productId")
+    List<Inventory> findPageAfterProductId(@Param("after") UUID after, Pageable pageable);
+
+    /**
+     * First keyset page ordered by SKU.
+     */
+    @Query("SELECT i FROM Inventory i JOIN FETCH i.product p ORDER BY p.sku")
+    List<Inventory> findFirstPageBySku(Pageable pageable);
+
+    /**
+     * Keyset page of products after the given SKU, walking the unique SKU index.
+     */
+    @Query("SELECT i FROM Inventory i JOIN FETCH i.product p WHERE p.sku > :after ORDER BY p.sku")
+    List<Inventory> findPageAfterSku(@Param("after") String after, Pageable pageable);
+
+    /**
+     * Stream every inventory row in product ID order from a server-side cursor.
+     * Must be consumed inside a read-only transaction.
+     */
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+        @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("SELECT i FROM Inventory i JOIN FETCH i.product ORDER BY i.productId")
+    Stream<Inventory> streamAllOrderByProductId();
+
+    /**
+     * Stream every inventory row in SKU order from a server-side cursor.
+     * Must be consumed inside a read-only transaction.
+     */
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+        @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("SELECT i FROM Inventory i JOIN FETCH i.product p ORDER BY p.sku")
+    Stream<Inventory> streamAllOrderBySku();
+
     /**
      * Find all inventory items with low stock.
      */
     @Query("SELECT i FROM Inventory i JOIN FETCH i.product WHERE (i.quantity - i.reservedQuantity) <= :threshold")
     List<Inventory> findLowStockItems(@Param("threshold") Integer threshold);
 
+    /**
+     * Find inventory with product details for several products.
+     */
+    @Query("SELECT i FROM Inventory i JOIN FETCH i.product WHERE i.productId IN :productIds")
+    List<Inventory> findAllByProductIdInWithProduct(@Param("productIds") List<UUID> productIds);
+
     /**
      * Find inventory items by category.
      */
@@ -56,6 +112,13 @@ public interface InventoryRepository extends JpaRepository<Inventory, UUID> {
     @Query("SELECT SUM(i.quantity * p.price) FROM Inventory i JOIN i.product p")
     Double getTotalInventoryValue();
 
+    /**
+     * Get inventory value per category, products without one under "Uncategorized".
+     */
+    @Query("SELECT COALESCE(p.category, 'Uncategorized'), SUM(i.quantity * p.price) FROM Inventory i JOIN i.product p " +
+           "GROUP BY COALESCE(p.category, 'Uncategorized') ORDER BY COALESCE(p.category, 'Uncategorized')")
+    List<Object[]> getCategoryInventoryValues();
+
     /**
      * Find inventory with pessimistic lock for critical updates.
      */
@@ -63,12 +126,58 @@ public interface InventoryRepository extends JpaRepository<Inventory, UUID> {
     @Query("SELECT i FROM Inventory i WHERE i.productId = :productId")
     Optional<Inventory> findByProductIdWithLock(@Param("productId") UUID productId);
 
+    /**
+     * Lock inventory rows for several products in ascending productId order,
+     * so concurrent multi-product transactions always acquire locks in the same order.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Inventory i JOIN FETCH i.product WHERE i.productId IN :productIds ORDER BY i.productId")
+    List<Inventory> findAllByProductIdInWithLock(@Param("productIds") List<UUID> productIds);
+
+    /**
+     * Reserve stock in a single guarded statement, returning the new counters.
+     * Returns no row when the product does not exist, has insufficient stock or is split.
+     */
+    @Query(value = "UPDATE inventory i SET reserved_quantity = i.reserved_quantity + :quantity, version = i.version + 1 " +
+                   "WHERE i.product_id = :productId AND NOT i.split AND (i.quantity - i.reserved_quantity) >= :quantity " +
+                   "RETURNING i.product_id, i.quantity, i.reserved_quantity, " +
+                   "(SELECT p.sku FROM products p WHERE p.id = i.product_id), i.version", nativeQuery = true)
+    List<Object[]> reserveStockReturning(@Param("productId") UUID productId, @Param("quantity") Integer quantity);
+
+    /**
+     * Release reserved stock in a single guarded statement, returning the new counters.
+     */
+    @Query(value = "UPDATE inventory i SET reserved_quantity = i.reserved_quantity - :quantity, version = i.version + 1 " +
+                   "WHERE i.product_id = :productId AND NOT i.split AND i.reserved_quantity >= :quantity " +
+                   "RETURNING i.product_id, i.quantity, i.reserved_quantity, " +
+                   "(SELECT p.sku FROM products p WHERE p.id = i.product_id), i.version", nativeQuery = true)
+    List<Object[]> releaseReservedStockReturning(@Param("productId") UUID productId, @Param("quantity") Integer quantity);
+
+    /**
+     * Confirm an allocation in a single guarded statement, returning the new counters.
+     */
+    @Query(value = "UPDATE inventory i SET quantity = i.quantity - :quantity, " +
+                   "reserved_quantity = i.reserved_quantity - :quantity, version = i.version + 1 " +
+                   "WHERE i.product_id = :productId AND NOT i.split AND i.reserved_quantity >= :quantity " +
+                   "RETURNING i.product_id, i.quantity, i.reserved_quantity, " +
+                   "(SELECT p.sku FROM products p WHERE p.id = i.product_id), i.version", nativeQuery = true)
+    List<Object[]> confirmAllocationReturning(@Param("productId") UUID productId, @Param("quantity") Integer quantity);
+
+    /**
+     * Overwrite the on-hand quantity in a single statement, returning the new counters.
+     */
+    @Query(value = "UPDATE inventory i SET quantity = :quantity, version = i.version + 1 " +
+                   "WHERE i.product_id = :productId AND NOT i.split " +
+                   "RETURNING i.product_id, i.quantity, i.reserved_quantity, " +
+                   "(SELECT p.sku FROM products p WHERE p.id = i.product_id), i.version", nativeQuery = true)
+    List<Object[]> updateQuantityReturning(@Param("productId") UUID productId, @Param("quantity") Integer quantity);
+
     /**
      * Bulk update reserved quantities.
      */
     @Modifying
     @Query("UPDATE Inventory i SET i.reservedQuantity = i.reservedQuantity + :quantity " +
-           "WHERE i.productId = :productId AND (i.quantity - i.reservedQuantity) >= :quantity")
+           "WHERE i.productId = :productId AND i.split = false AND (i.quantity - i.reservedQuantity) >= :quantity")
     int reserveStock(@Param("productId") UUID productId, @Param("quantity") Integer quantity);
 
     /**
@@ -76,6 +185,6 @@ public interface InventoryRepository extends JpaRepository<Inventory, UUID> {
      */
     @Modifying
     @Query("UPDATE Inventory i SET i.reservedQuantity = i.reservedQuantity - :quantity " +
-           "WHERE i.productId = :productId AND i.reservedQuantity >= :quantity")
+           "WHERE i.productId = :productId AND i.split = false AND i.reservedQuantity >= :quantity")
     int releaseReservedStock(@Param("productId") UUID productId, @Param("quantity") Integer quantity);
 }
@@ -0,0 +1,41 @@
+package com.commerce.repository;
+
+import com.commerce.model.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository for the transactional outbox.
+ */
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, UUID> {
+
+    /**
+     * Lock the oldest unprocessed events, skipping rows another relay already holds,
+     * so several relay instances can drain the outbox in parallel.
+     */
+    @Query(value = "SELECT * FROM outbox_events WHERE processed_at IS NULL " +
+                   "ORDER BY created_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboxEvent> lockUnprocessed(@Param("limit") int limit);
+
+    /**
+     * Mark a batch of events as relayed.
+     */
+    @Modifying
+    @Query("UPDATE OutboxEvent o SET o.processedAt = :processedAt WHERE o.id IN :ids")
+    int markProcessed(@Param("ids") List<UUID> ids, @Param("processedAt") LocalDateTime processedAt);
+
+    /**
+     * Remove relayed events older than the cutoff.
+     */
+    @Modifying
+    @Query("DELETE FROM OutboxEvent o WHERE o.processedAt < :cutoff")
+    int deleteProcessedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
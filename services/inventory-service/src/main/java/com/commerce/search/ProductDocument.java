@@ -0,0 +1,16 @@
+package com.commerce.search;
+
+import java.util.UUID;
+
+import com.commerce.model.Product;
+
+/**
+ * The searchable fields of a product.
+ */
+public record ProductDocument(UUID productId, String sku, String name, String description, String category) {
+
+    public static ProductDocument fromProduct(Product product) {
+        return new ProductDocument(product.getId(), product.getSku(), product.getName(),
+                                   product.getDescription(), product.getCategory());
+    }
+}
@@ -0,0 +1,322 @@
+package com.commerce.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.commerce.dto.ProductSearchHit;
+
+/**
+ * In-memory inverted index over product name, SKU and description.
+ *
+ * <p>Terms live in a sorted map so a query token matches both the exact term and every term it
+ * prefixes (search-as-you-type). All query tokens must match; a document's score is the sum over
+ * tokens of field weight x idf, with prefix matches discounted. Updates tombstone the old document
+ * and append a new one; the index is compacted once tombstones pile up.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final float NAME_WEIGHT = 3.0f;
+    private static final float SKU_WEIGHT = 2.0f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+    private static final float PREFIX_FACTOR = 0.5f;
+    private static final int MIN_TOMBSTONES_FOR_COMPACTION = 1024;
+
+    private final int minPrefixLength;
+    private final int maxPrefixExpansions;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Segment segment = new Segment();
+    private volatile boolean ready;
+
+    public ProductSearchIndex(@Value("${commerce.inventory.search.min-prefix-length:2}") int minPrefixLength,
+                              @Value("${commerce.inventory.search.max-prefix-expansions:256}") int maxPrefixExpansions) {
+        this.minPrefixLength = minPrefixLength;
+        this.maxPrefixExpansions = maxPrefixExpansions;
+    }
+
+    /**
+     * An indexed product with its distinct terms and their field weights.
+     */
+    private record Doc(ProductDocument product, String[] terms, float[] weights) {}
+
+    /**
+     * Document IDs containing one term, in insertion order.
+     */
+    private static final class Postings {
+
+        int[] docs = new int[2];
+        float[] weights = new float[2];
+        int size;
+
+        void add(int doc, float weight) {
+            if (size == docs.length) {
+                int capacity = size * 2;
+                docs = Arrays.copyOf(docs, capacity);
+                weights = Arrays.copyOf(weights, capacity);
+            }
+            docs[size] = doc;
+            weights[size] = weight;
+            size++;
+        }
+    }
+
+    /**
+     * The index data; replaced wholesale on rebuild and compaction.
+     */
+    private static final class Segment {
+
+        final List<Doc> docs = new ArrayList<>();
+        final Map<UUID, Integer> docIds = new HashMap<>();
+        final TreeMap<String, Postings> postings = new TreeMap<>();
+        int removed;
+
+        int live() {
+            return docs.size() - removed;
+        }
+
+        void add(Doc doc) {
+            int docId = docs.size();
+            docs.add(doc);
+            docIds.put(doc.product().productId(), docId);
+            for (int i = 0; i < doc.terms().length; i++) {
+                postings.computeIfAbsent(doc.terms()[i], term -> new Postings()).add(docId, doc.weights()[i]);
+            }
+        }
+
+        void remove(UUID productId) {
+            Integer docId = docIds.remove(productId);
+            if (docId != null) {
+                docs.set(docId, null);
+                removed++;
+            }
+        }
+    }
+
+    /**
+     * Replace the whole index. The new segment is built before the lock is taken,
+     * so searches keep running against the old one meanwhile.
+     */
+    public void replaceAll(Collection<ProductDocument> products) {
+        Segment rebuilt = new Segment();
+        for (ProductDocument product : products) {
+            rebuilt.remove(product.productId());
+            rebuilt.add(toDoc(product));
+        }
+
+        lock.writeLock().lock();
+        try {
+            segment = rebuilt;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Add or replace one product.
+     */
+    public void upsert(ProductDocument product) {
+        Doc doc = toDoc(product);
+        lock.writeLock().lock();
+        try {
+            segment.remove(product.productId());
+            segment.add(doc);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove one product.
+     */
+    public void remove(UUID productId) {
+        lock.writeLock().lock();
+        try {
+            segment.remove(productId);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Search by tokens and token prefixes, optionally restricted to one category.
+     *
+     * @return up to limit hits, best first
+     */
+    public List<ProductSearchHit> search(String query, String category, int limit) {
+        Set<String> tokens = new LinkedHashSet<>(tokenize(query));
+        if (tokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Segment current = segment;
+            int live = Math.max(1, current.live());
+
+            List<Map<Integer, Float>> perToken = new ArrayList<>(tokens.size());
+            for (String token : tokens) {
+                Map<Integer, Float> matches = matches(current, token, live);
+                if (matches.isEmpty()) {
+                    return List.of();
+                }
+                perToken.add(matches);
+            }
+            // Intersect starting from the most selective token
+            perToken.sort(Comparator.comparingInt(Map::size));
+
+            Map<Integer, Float> scores = new HashMap<>();
+            perToken.get(0).forEach((docId, score) -> {
+                Doc doc = current.docs.get(docId);
+                if (doc != null && (category == null || category.equalsIgnoreCase(doc.product().category()))) {
+                    scores.put(docId, score);
+                }
+            });
+            for (int i = 1; i < perToken.size() && !scores.isEmpty(); i++) {
+                Map<Integer, Float> matches = perToken.get(i);
+                scores.entrySet().removeIf(entry -> !matches.containsKey(entry.getKey()));
+                scores.replaceAll((docId, score) -> score + matches.get(docId));
+            }
+
+            PriorityQueue<Map.Entry<Integer, Float>> top = new PriorityQueue<>(limit + 1, Map.Entry.comparingByValue());
+            for (Map.Entry<Integer, Float> entry : scores.entrySet()) {
+                top.offer(entry);
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+
+            List<ProductSearchHit> hits = new ArrayList<>(top.size());
+            while (!top.isEmpty()) {
+                Map.Entry<Integer, Float> entry = top.poll();
+                ProductDocument product = current.docs.get(entry.getKey()).product();
+                hits.add(new ProductSearchHit(product.productId(), product.sku(), product.name(),
+                                              product.category(), entry.getValue()));
+            }
+            Collections.reverse(hits);
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Whether the initial build has completed.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Number of live products in the index.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return segment.live();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Lowercased alphanumeric tokens of the text.
+     */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private Map<Integer, Float> matches(Segment current, String token, int live) {
+        NavigableMap<String, Postings> terms;
+        if (token.length() >= minPrefixLength) {
+            terms = current.postings.subMap(token, true, token + Character.MAX_VALUE, false);
+        } else {
+            terms = current.postings.subMap(token, true, token, true);
+        }
+
+        Map<Integer, Float> matches = new HashMap<>();
+        int expansions = 0;
+        for (Map.Entry<String, Postings> entry : terms.entrySet()) {
+            if (expansions++ >= maxPrefixExpansions) {
+                break;
+            }
+            Postings postings = entry.getValue();
+            float factor = entry.getKey().length() == token.length() ? 1.0f : PREFIX_FACTOR;
+            float idf = (float) Math.log(1.0 + (double) live / postings.size);
+            for (int i = 0; i < postings.size; i++) {
+                matches.merge(postings.docs[i], postings.weights[i] * idf * factor, Math::max);
+            }
+        }
+        return matches;
+    }
+
+    private void compactIfNeeded() {
+        Segment current = segment;
+        if (current.removed < MIN_TOMBSTONES_FOR_COMPACTION || current.removed < current.docs.size() / 4) {
+            return;
+        }
+        Segment compacted = new Segment();
+        for (Doc doc : current.docs) {
+            if (doc != null) {
+                compacted.add(doc);
+            }
+        }
+        segment = compacted;
+    }
+
+    private static Doc toDoc(ProductDocument product) {
+        Map<String, Float> weights = new LinkedHashMap<>();
+        addField(weights, product.name(), NAME_WEIGHT);
+        addField(weights, product.sku(), SKU_WEIGHT);
+        addField(weights, product.description(), DESCRIPTION_WEIGHT);
+
+        String[] terms = new String[weights.size()];
+        float[] termWeights = new float[weights.size()];
+        int i = 0;
+        for (Map.Entry<String, Float> entry : weights.entrySet()) {
+            terms[i] = entry.getKey();
+            termWeights[i] = entry.getValue();
+            i++;
+        }
+        return new Doc(product, terms, termWeights);
+    }
+
+    private static void addField(Map<String, Float> weights, String text, float weight) {
+        for (String token : new HashSet<>(tokenize(text))) {
+            weights.merge(token, weight, Float::sum);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.commerce.search;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.commerce.config.ReplicaRoutingDataSource;
+import com.commerce.event.ProductChangedEvent;
+
+/**
+ * Keeps {@link ProductSearchIndex} in step with the products table: a full build at startup and on a
+ * nightly schedule, product writes made through this service applied after commit, and a periodic
+ * {@code updated_at} delta sync for rows written elsewhere.
+ */
+@Component
+public class ProductSearchIndexer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndexer.class);
+
+    private static final String SELECT_PRODUCTS = "SELECT id, sku, name, description, category FROM products";
+    // Re-read a little history each sync so rows committed out of timestamp order are not missed
+    private static final Duration SYNC_OVERLAP = Duration.ofSeconds(5);
+
+    private final ProductSearchIndex index;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int fetchSize;
+
+    private volatile LocalDateTime watermark;
+
+    public ProductSearchIndexer(ProductSearchIndex index,
+                                JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${commerce.inventory.search.fetch-size:1000}") int fetchSize) {
+        this.index = index;
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.fetchSize = fetchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        rebuild();
+    }
+
+    /**
+     * Rebuild from scratch; also drops products deleted outside this service.
+     */
+    @Scheduled(cron = "${commerce.inventory.search.rebuild-cron:0 30 3 * * *}")
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        LocalDateTime startedAt = LocalDateTime.now();
+
+        List<ProductDocument> products = new ArrayList<>();
+        load(SELECT_PRODUCTS, null, products);
+        index.replaceAll(products);
+        watermark = startedAt.minus(SYNC_OVERLAP);
+
+        logger.info("Built product search index with {} products in {}ms", products.size(),
+                   System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Apply products updated since the last sync.
+     */
+    @Scheduled(fixedDelayString = "${commerce.inventory.search.sync-interval-ms:60000}")
+    public void syncChanges() {
+        LocalDateTime since = watermark;
+        if (since == null) {
+            return;
+        }
+        LocalDateTime startedAt = LocalDateTime.now();
+
+        List<ProductDocument> changed = new ArrayList<>();
+        load(SELECT_PRODUCTS + " WHERE updated_at > ?", Timestamp.valueOf(since), changed);
+        changed.forEach(index::upsert);
+        watermark = startedAt.minus(SYNC_OVERLAP);
+
+        if (!changed.isEmpty()) {
+            logger.debug("Synced {} changed products into the search index", changed.size());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.deleted()) {
+            index.remove(event.productId());
+        } else {
+            index.upsert(event.document());
+        }
+    }
+
+    private void load(String sql, Timestamp since, List<ProductDocument> sink) {
+        // The watermark comes from this instance's clock, so a lagging replica would skip rows for good
+        ReplicaRoutingDataSource.onPrimary(() -> readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setFetchSize(fetchSize);
+            if (since != null) {
+                ps.setTimestamp(1, since);
+            }
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            sink.add(new ProductDocument(
+                rs.getObject("id", UUID.class),
+                rs.getString("sku"),
+                rs.getString("name"),
+                rs.getString("description"),
+                rs.getString("category")
+            ));
+        })));
+    }
+}
@@ -0,0 +1,52 @@
+package com.commerce.service;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.stereotype.Component;
+
+import com.commerce.repository.InventoryRepository;
+
+/**
+ * One guarded {@code UPDATE ... RETURNING} per operation: a single round trip,
+ * no entity load, no product join and nothing to retry.
+ */
+@Component
+public class AtomicStockStrategy implements StockConcurrencyStrategy {
+
+    private final InventoryRepository inventoryRepository;
+
+    public AtomicStockStrategy(InventoryRepository inventoryRepository) {
+        this.inventoryRepository = inventoryRepository;
+    }
+
+    @Override
+    public ConcurrencyMode mode() {
+        return ConcurrencyMode.ATOMIC;
+    }
+
+    @Override
+    public Optional<StockLevel> reserve(UUID productId, int quantity, UUID orderId) {
+        return firstRow(inventoryRepository.reserveStockReturning(productId, quantity));
+    }
+
+    @Override
+    public Optional<StockLevel> release(UUID productId, int quantity, UUID orderId) {
+        return firstRow(inventoryRepository.releaseReservedStockReturning(productId, quantity));
+    }
+
+    @Override
+    public Optional<StockLevel> confirm(UUID productId, int quantity, UUID orderId) {
+        return firstRow(inventoryRepository.confirmAllocationReturning(productId, quantity));
+    }
+
+    @Override
+    public Optional<StockLevel> setQuantity(UUID productId, int quantity) {
+        return firstRow(inventoryRepository.updateQuantityReturning(productId, quantity));
+    }
+
+    private Optional<StockLevel> firstRow(List<Object[]> returned) {
+        return returned.isEmpty() ? Optional.empty() : Optional.of(StockLevel.fromRow(returned.get(0)));
+    }
+}
@@ -0,0 +1,55 @@
+package com.commerce.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.commerce.dto.ReservationItem;
+
+/**
+ * Answers many availability checks in two round trips: one Redis MGET over the per-product
+ * available counts the single-product check also uses, and one IN query for whatever missed.
+ * Lines for the same product share one entry regardless of the quantity asked for.
+ */
+@Service
+public class BatchAvailabilityService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchAvailabilityService.class);
+
+    private final StockLevelCache stockLevelCache;
+
+    public BatchAvailabilityService(StockLevelCache stockLevelCache) {
+        this.stockLevelCache = stockLevelCache;
+    }
+
+    /**
+     * Check every line.
+     *
+     * @return availability per line, in request order
+     */
+    @Transactional(readOnly = true)
+    public List<Boolean> checkAvailability(List<ReservationItem> items) {
+        Set<UUID> productIds = new LinkedHashSet<>();
+        for (ReservationItem item : items) {
+            productIds.add(item.getProductId());
+        }
+
+        Map<UUID, Integer> available = stockLevelCache.available(productIds);
+        List<Boolean> results = new ArrayList<>(items.size());
+        for (ReservationItem item : items) {
+            Integer count = available.get(item.getProductId());
+            results.add(count != null && count >= item.getQuantity());
+        }
+
+        logger.debug("Batch availability: {} lines, {} products", items.size(), productIds.size());
+        return results;
+    }
+}
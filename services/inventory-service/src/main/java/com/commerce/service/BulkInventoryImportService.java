@@ -0,0 +1,331 @@
+package com.commerce.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.commerce.dto.InventoryImportResult;
+import com.commerce.event.InventoryEvent;
+import com.commerce.event.InventoryEventPublisher;
+import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+/**
+ * Imports warehouse stock counts in bulk. Rows are streamed with {@code COPY FROM STDIN} into a
+ * transaction-scoped staging table and merged into inventory with one set-based UPDATE, instead
+ * of a load and save per product.
+ *
+ * <p>The last row for a product wins. A count below the product's reserved quantity is rejected.
+ * Split and ledger products keep live counters outside the inventory row, so their counts are
+ * applied through their concurrency strategy. Every changed product gets one INVENTORY_UPDATED
+ * event; {@link InventoryCacheInvalidator} evicts their cache entries in one pass after commit.
+ */
+@Service
+public class BulkInventoryImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkInventoryImportService.class);
+
+    public static final String FORMAT_CSV = "csv";
+    public static final String FORMAT_NDJSON = "ndjson";
+
+    private static final String EVENT_TYPE = "INVENTORY_UPDATED";
+    private static final int COPY_BUFFER_BYTES = 64 * 1024;
+
+    // CSV header names accepted for each staging column
+    private static final Map<String, String> CSV_COLUMNS = Map.of(
+        "product_id", "product_id",
+        "productid", "product_id",
+        "sku", "sku",
+        "quantity", "quantity"
+    );
+
+    private static final String CREATE_STAGING_SQL =
+        "CREATE TEMP TABLE inventory_import (line BIGSERIAL, product_id UUID, sku VARCHAR(100), quantity INTEGER) " +
+        "ON COMMIT DROP";
+
+    private static final String RESOLVE_SKUS_SQL =
+        "UPDATE inventory_import s SET product_id = p.id FROM products p " +
+        "WHERE s.product_id IS NULL AND s.sku IS NOT NULL AND p.sku = s.sku";
+
+    private static final String COUNT_UNKNOWN_SQL =
+        "SELECT count(*) FROM inventory_import s WHERE s.product_id IS NULL " +
+        "OR NOT EXISTS (SELECT 1 FROM inventory i WHERE i.product_id = s.product_id)";
+
+    // Last row per known product
+    private static final String CREATE_LATEST_SQL =
+        "CREATE TEMP TABLE inventory_import_latest ON COMMIT DROP AS " +
+        "SELECT DISTINCT ON (s.product_id) s.product_id, s.quantity FROM inventory_import s " +
+        "WHERE EXISTS (SELECT 1 FROM inventory i WHERE i.product_id = s.product_id) " +
+        "ORDER BY s.product_id, s.line DESC";
+
+    // Split rows are routed even if this instance has not seen the split yet
+    private static final String TAKE_ROUTED_SQL =
+        "DELETE FROM inventory_import_latest s USING products p, inventory i " +
+        "WHERE p.id = s.product_id AND i.product_id = s.product_id " +
+        "AND (s.product_id = ANY(?) OR p.category = ANY(?) OR i.split) " +
+        "RETURNING s.product_id, s.quantity, i.split";
+
+    private static final String MERGE_SQL =
+        "UPDATE inventory i SET quantity = s.quantity, version = i.version + 1, updated_at = CURRENT_TIMESTAMP " +
+        "FROM inventory_import_latest s " +
+        "WHERE i.product_id = s.product_id AND NOT i.split " +
+        "AND s.quantity >= i.reserved_quantity AND i.quantity <> s.quantity " +
+        "RETURNING i.product_id, i.quantity, i.reserved_quantity, " +
+        "(SELECT p.sku FROM products p WHERE p.id = i.product_id), i.version";
+
+    // Merged rows hold their row locks, so reserved quantities cannot move between the merge and this count
+    private static final String COUNT_REJECTED_SQL =
+        "SELECT count(*) FROM inventory_import_latest s JOIN inventory i ON i.product_id = s.product_id " +
+        "WHERE s.quantity IS NULL OR s.quantity < i.reserved_quantity";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StockStrategySelector strategySelector;
+    private final SplitCounterService splitCounterService;
+    private final InventoryEventPublisher eventPublisher;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final ObjectReader ndjsonReader;
+
+    public BulkInventoryImportService(JdbcTemplate jdbcTemplate,
+                                      StockStrategySelector strategySelector,
+                                      SplitCounterService splitCounterService,
+                                      InventoryEventPublisher eventPublisher,
+                                      ApplicationEventPublisher applicationEventPublisher,
+                                      ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.strategySelector = strategySelector;
+        this.splitCounterService = splitCounterService;
+        this.eventPublisher = eventPublisher;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.ndjsonReader = objectMapper.readerFor(ImportRow.class);
+    }
+
+    /**
+     * Import stock counts from a CSV (header row naming {@code product_id} and/or {@code sku}, and
+     * {@code quantity}) or NDJSON ({@code {"productId": ..., "sku": ..., "quantity": ...}} per line) stream.
+     *
+     * @throws IllegalArgumentException when the format, header or a row is invalid; nothing is imported
+     */
+    @Transactional
+    public InventoryImportResult importStock(InputStream input, String format) {
+        long start = System.nanoTime();
+
+        long rowsRead = jdbcTemplate.execute((ConnectionCallback<Long>) con -> {
+            try (PreparedStatement ps = con.prepareStatement(CREATE_STAGING_SQL)) {
+                ps.execute();
+            }
+            CopyManager copyManager = con.unwrap(PGConnection.class).getCopyAPI();
+            try {
+                return switch (format) {
+                    case FORMAT_CSV -> copyCsv(copyManager, input);
+                    case FORMAT_NDJSON -> copyNdjson(copyManager, input);
+                    default -> throw new IllegalArgumentException("Unsupported import format: " + format);
+                };
+            } catch (SQLException e) {
+                // SQLSTATE class 22: malformed UUID, integer out of range, value too long
+                if (e.getSQLState() != null && e.getSQLState().startsWith("22")) {
+                    throw new IllegalArgumentException("Invalid import data: " + e.getMessage(), e);
+                }
+                throw e;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        jdbcTemplate.update(RESOLVE_SKUS_SQL);
+        long unknown = count(COUNT_UNKNOWN_SQL);
+        int distinctProducts = jdbcTemplate.update(CREATE_LATEST_SQL);
+
+        List<StockLevel> changed = new ArrayList<>();
+        long routedRejected = applyRouted(changed);
+        List<StockLevel> merged = jdbcTemplate.query(MERGE_SQL, (rs, rowNum) -> new StockLevel(
+            rs.getObject(1, UUID.class), rs.getString(4), rs.getInt(2), rs.getInt(3),
+            StockLevel.version(rs.getLong(5), 0)));
+        changed.addAll(merged);
+        long rejected = count(COUNT_REJECTED_SQL) + routedRejected;
+
+        long updated = changed.size();
+        long superseded = rowsRead - unknown - distinctProducts;
+        long unchanged = distinctProducts - updated - rejected;
+
+        publishChanges(changed);
+
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        InventoryImportResult result = new InventoryImportResult(
+            rowsRead, updated, unchanged, unknown, rejected, superseded, elapsedMs);
+        logger.info("Imported {} rows ({}) in {} ms ({} rows/s): {} updated, {} unchanged, {} unknown, {} rejected",
+                   rowsRead, format, elapsedMs, result.getRowsPerSecond(), updated, unchanged, unknown, rejected);
+        return result;
+    }
+
+    /**
+     * COPY the CSV body straight into the staging table, using its header to pick the columns.
+     */
+    private long copyCsv(CopyManager copyManager, InputStream input) throws SQLException, IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), COPY_BUFFER_BYTES);
+        String header = reader.readLine();
+        if (header == null) {
+            return 0;
+        }
+
+        List<String> columns = new ArrayList<>();
+        for (String name : header.split(",")) {
+            String normalized = name.trim().replace("\"", "").toLowerCase(Locale.ROOT);
+            String column = CSV_COLUMNS.get(normalized);
+            if (column == null || columns.contains(column)) {
+                throw new IllegalArgumentException("Unexpected CSV column: " + name.trim());
+            }
+            columns.add(column);
+        }
+        if (!columns.contains("quantity") || !(columns.contains("product_id") || columns.contains("sku"))) {
+            throw new IllegalArgumentException("CSV header must name quantity and product_id or sku");
+        }
+
+        // Column names come from the whitelist above
+        return copyManager.copyIn(
+            "COPY inventory_import (" + String.join(", ", columns) + ") FROM STDIN WITH (FORMAT csv)",
+            reader, COPY_BUFFER_BYTES);
+    }
+
+    /**
+     * Parse NDJSON lines and feed them to COPY as CSV, a buffer at a time.
+     */
+    private long copyNdjson(CopyManager copyManager, InputStream input) throws SQLException, IOException {
+        CopyIn copyIn = copyManager.copyIn(
+            "COPY inventory_import (product_id, sku, quantity) FROM STDIN WITH (FORMAT csv)");
+        StringBuilder buffer = new StringBuilder(COPY_BUFFER_BYTES);
+        try (MappingIterator<ImportRow> rows = ndjsonReader.readValues(input)) {
+            while (rows.hasNextValue()) {
+                ImportRow row = rows.nextValue();
+                if (row.productId() != null) {
+                    buffer.append(row.productId());
+                }
+                buffer.append(',');
+                if (row.sku() != null) {
+                    buffer.append('"').append(row.sku().replace("\"", "\"\"")).append('"');
+                }
+                buffer.append(',');
+                if (row.quantity() != null) {
+                    buffer.append(row.quantity());
+                }
+                buffer.append('\n');
+                if (buffer.length() >= COPY_BUFFER_BYTES) {
+                    writeToCopy(copyIn, buffer);
+                }
+            }
+            writeToCopy(copyIn, buffer);
+            return copyIn.endCopy();
+        } catch (RuntimeException | IOException e) {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+            if (e instanceof JsonProcessingException) {
+                throw new IllegalArgumentException("Invalid NDJSON row: " + e.getMessage(), e);
+            }
+            throw e;
+        }
+    }
+
+    private static void writeToCopy(CopyIn copyIn, StringBuilder buffer) throws SQLException {
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+
+    /**
+     * Take split and ledger products out of the set-based merge and apply them through their strategy.
+     *
+     * @return number of rejected counts
+     */
+    private long applyRouted(List<StockLevel> changed) {
+        Set<UUID> productIds = strategySelector.productsOutsideInventoryRow();
+        Set<String> categories = strategySelector.categoriesOutsideInventoryRow();
+
+        Map<UUID, Integer> routed = new LinkedHashMap<>();
+        Set<UUID> splitRows = new HashSet<>();
+        jdbcTemplate.execute((ConnectionCallback<Void>) con -> {
+            try (PreparedStatement ps = con.prepareStatement(TAKE_ROUTED_SQL)) {
+                ps.setArray(1, con.createArrayOf("uuid", productIds.toArray()));
+                ps.setArray(2, con.createArrayOf("varchar", categories.toArray()));
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        routed.put(rs.getObject(1, UUID.class), (Integer) rs.getObject(2));
+                        if (rs.getBoolean(3)) {
+                            splitRows.add(rs.getObject(1, UUID.class));
+                        }
+                    }
+                }
+            }
+            return null;
+        });
+
+        long rejected = 0;
+        for (Map.Entry<UUID, Integer> entry : routed.entrySet()) {
+            UUID productId = entry.getKey();
+            Integer quantity = entry.getValue();
+            if (splitRows.contains(productId) && !splitCounterService.isSplit(productId)) {
+                splitCounterService.refresh(productId);
+            }
+            StockConcurrencyStrategy strategy = strategySelector.strategyFor(productId);
+            StockLevel current = strategy.liveLevel(productId).orElse(null);
+            if (quantity == null || quantity < 0 || (current != null && quantity < current.reservedQuantity())) {
+                rejected++;
+            } else if (current == null || current.quantity() != quantity) {
+                strategy.setQuantity(productId, quantity).ifPresent(changed::add);
+            }
+        }
+        return rejected;
+    }
+
+    private void publishChanges(List<StockLevel> changed) {
+        if (changed.isEmpty()) {
+            return;
+        }
+        List<InventoryEvent> events = new ArrayList<>(changed.size());
+        for (StockLevel level : changed) {
+            events.add(new InventoryEvent(EVENT_TYPE, level.productId(), level.sku(),
+                level.quantity(), level.reservedQuantity(), level.availableQuantity(), null));
+            applicationEventPublisher.publishEvent(new StockLevelChangedEvent(level));
+        }
+        eventPublisher.publishAll(events);
+    }
+
+    private long count(String sql) {
+        Long count = jdbcTemplate.queryForObject(sql, Long.class);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * One NDJSON line.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record ImportRow(@JsonAlias("product_id") UUID productId, String sku, Integer quantity) {}
+}
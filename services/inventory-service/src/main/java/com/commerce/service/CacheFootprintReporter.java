@@ -0,0 +1,126 @@
+package com.commerce.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.commerce.config.CacheConfig;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Periodically measures how many Redis keys each cache holds and estimates their memory from a
+ * sample of {@code MEMORY USAGE} calls, so cache layouts can be compared by footprint as well as
+ * by hit ratio. Keys are walked with SCAN, never KEYS.
+ */
+@Component
+@ConditionalOnProperty(name = "commerce.inventory.cache.footprint.enabled", havingValue = "true", matchIfMissing = true)
+public class CacheFootprintReporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheFootprintReporter.class);
+
+    // Per-quantity availability entries from before the stock-level cache; they drain as their TTL expires
+    private static final String LEGACY_AVAILABILITY_CACHE = "stock-availability";
+    // Per-SKU copies of inventory entries from before SKUs resolved through the in-memory index
+    private static final String LEGACY_SKU_CACHE = "inventory-sku";
+
+    private static final List<String> CACHES = List.of(
+        CacheConfig.INVENTORY_CACHE,
+        CacheConfig.PRODUCTS_CACHE,
+        CacheConfig.STOCK_LEVEL_CACHE,
+        LEGACY_AVAILABILITY_CACHE,
+        LEGACY_SKU_CACHE
+    );
+
+    private static final byte[] USAGE = "USAGE".getBytes(StandardCharsets.UTF_8);
+
+    private final StringRedisTemplate redisTemplate;
+    private final int sampleSize;
+    private final Map<String, AtomicLong> keyCounts = new LinkedHashMap<>();
+    private final Map<String, AtomicLong> memoryBytes = new LinkedHashMap<>();
+    private final AtomicLong usedMemory = new AtomicLong();
+
+    public CacheFootprintReporter(StringRedisTemplate redisTemplate,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${commerce.inventory.cache.footprint.sample-size:200}") int sampleSize) {
+        this.redisTemplate = redisTemplate;
+        this.sampleSize = sampleSize;
+
+        for (String cache : CACHES) {
+            keyCounts.put(cache, new AtomicLong());
+            memoryBytes.put(cache, new AtomicLong());
+            Gauge.builder("inventory.cache.keys", keyCounts.get(cache), AtomicLong::get)
+                    .description("Redis keys held by the cache")
+                    .tag("cache", cache)
+                    .register(meterRegistry);
+            Gauge.builder("inventory.cache.memory", memoryBytes.get(cache), AtomicLong::get)
+                    .description("Estimated Redis memory held by the cache (sampled MEMORY USAGE x key count)")
+                    .baseUnit("bytes")
+                    .tag("cache", cache)
+                    .register(meterRegistry);
+        }
+        Gauge.builder("inventory.redis.memory.used", usedMemory, AtomicLong::get)
+                .description("Redis used_memory")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${commerce.inventory.cache.footprint.interval-ms:300000}",
+               initialDelayString = "${commerce.inventory.cache.footprint.interval-ms:300000}")
+    public void measure() {
+        try {
+            redisTemplate.execute((RedisCallback<Void>) connection -> {
+                for (String cache : CACHES) {
+                    measure(connection, cache);
+                }
+                Properties info = connection.serverCommands().info("memory");
+                if (info != null && info.getProperty("used_memory") != null) {
+                    usedMemory.set(Long.parseLong(info.getProperty("used_memory")));
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            logger.warn("Cache footprint measurement failed: {}", e.getMessage());
+        }
+    }
+
+    private void measure(RedisConnection connection, String cache) {
+        long keys = 0;
+        long sampled = 0;
+        long sampledBytes = 0;
+        // RedisCacheConfiguration's default key prefix is "<cacheName>::"
+        ScanOptions options = ScanOptions.scanOptions().match(cache + "::*").count(1000).build();
+        try (Cursor<byte[]> cursor = connection.keyCommands().scan(options)) {
+            while (cursor.hasNext()) {
+                byte[] key = cursor.next();
+                keys++;
+                if (sampled < sampleSize) {
+                    Object usage = connection.execute("MEMORY", USAGE, key);
+                    if (usage instanceof Number bytes) {
+                        sampledBytes += bytes.longValue();
+                        sampled++;
+                    }
+                }
+            }
+        }
+        keyCounts.get(cache).set(keys);
+        memoryBytes.get(cache).set(sampled == 0 ? 0 : sampledBytes * keys / sampled);
+        logger.debug("Cache {}: {} keys, ~{} bytes", cache, keys, memoryBytes.get(cache).get());
+    }
+}
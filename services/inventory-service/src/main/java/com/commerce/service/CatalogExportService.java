@@ -0,0 +1,123 @@
+package com.commerce.service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Exports the catalog joined with inventory as newline-delimited JSON.
+ * Rows are read through a forward-only cursor with a bounded fetch size and written straight to the
+ * output stream, so no entities or row lists are built; a slow client simply blocks the writer.
+ *
+ * <p>Split and ledger products are exported from their inventory rollup rows, which trail the live
+ * counters by at most one fold/flush interval.
+ */
+@Service
+public class CatalogExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogExportService.class);
+
+    private static final String EXPORT_SQL =
+        "SELECT p.id, p.sku, p.name, p.description, p.price, p.category, " +
+        "i.quantity, i.reserved_quantity, i.updated_at " +
+        "FROM products p JOIN inventory i ON i.product_id = p.id ORDER BY p.id";
+
+    private static final int OUTPUT_BUFFER_BYTES = 64 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final int fetchSize;
+
+    public CatalogExportService(JdbcTemplate jdbcTemplate,
+                                @Value("${commerce.inventory.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fetchSize = fetchSize;
+        // The caller owns the servlet stream; each line is terminated explicitly
+        this.jsonFactory.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    /**
+     * Write one JSON object per product line to the stream.
+     * Runs in a read-only transaction so the driver keeps a server-side cursor open.
+     *
+     * @return number of rows written
+     */
+    @Transactional(readOnly = true)
+    public long export(OutputStream target, boolean gzip) throws IOException {
+        long start = System.nanoTime();
+        OutputStream out = gzip
+                ? new GZIPOutputStream(target, OUTPUT_BUFFER_BYTES)
+                : new BufferedOutputStream(target, OUTPUT_BUFFER_BYTES);
+
+        long[] rows = {0};
+        try (JsonGenerator generator = jsonFactory.createGenerator(out, JsonEncoding.UTF8)) {
+            // Rows are separated by the newline writeRow emits, not Jackson's default " " between root values
+            generator.setRootValueSeparator(null);
+            RowCallbackHandler writeRow = rs -> {
+                try {
+                    writeRow(generator, rs);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                rows[0]++;
+            };
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(EXPORT_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(fetchSize);
+                return ps;
+            }, writeRow);
+        }
+        if (out instanceof GZIPOutputStream gzipOut) {
+            gzipOut.finish();
+        }
+        out.flush();
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        logger.info("Exported {} catalog rows in {}s ({} rows/s)",
+                   rows[0], String.format("%.2f", seconds), Math.round(rows[0] / Math.max(seconds, 1e-9)));
+        return rows[0];
+    }
+
+    private void writeRow(JsonGenerator generator, ResultSet rs) throws IOException {
+        try {
+            int quantity = rs.getInt("quantity");
+            int reserved = rs.getInt("reserved_quantity");
+            Timestamp updatedAt = rs.getTimestamp("updated_at");
+
+            generator.writeStartObject();
+            generator.writeStringField("productId", rs.getString("id"));
+            generator.writeStringField("sku", rs.getString("sku"));
+            generator.writeStringField("productName", rs.getString("name"));
+            generator.writeStringField("description", rs.getString("description"));
+            generator.writeFieldName("price");
+            generator.writeNumber(rs.getBigDecimal("price"));
+            generator.writeStringField("category", rs.getString("category"));
+            generator.writeNumberField("quantity", quantity);
+            generator.writeNumberField("reservedQuantity", reserved);
+            generator.writeNumberField("availableQuantity", quantity - reserved);
+            generator.writeStringField("updatedAt", updatedAt == null ? null : updatedAt.toLocalDateTime().toString());
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        } catch (SQLException e) {
+            throw new IOException("Could not read export row", e);
+        }
+    }
+}
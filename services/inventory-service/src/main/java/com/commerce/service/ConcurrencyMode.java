@@ -0,0 +1,42 @@
+package com.commerce.service;
+
+/**
+ * How stock mutations are applied to an inventory row.
+ */
+public enum ConcurrencyMode {
+
+    /**
+     * Load the entity, mutate it and save under {@code @Version}, retrying on conflicts.
+     * Cheapest for cold SKUs where conflicts are rare.
+     */
+    OPTIMISTIC,
+
+    /**
+     * Lock the row with {@code SELECT ... FOR UPDATE} before mutating; writers queue instead of retrying.
+     */
+    PESSIMISTIC,
+
+    /**
+     * Single guarded {@code UPDATE ... RETURNING} statement; no entity load and no retries.
+     */
+    ATOMIC,
+
+    /**
+     * Escrow buckets: stock is partitioned across several rows so writers on one SKU spread out.
+     * Selected automatically for products that have been split; not meant to be configured.
+     */
+    SPLIT,
+
+    /**
+     * In-memory reservation ledger with journaled write-behind; requires
+     * {@code commerce.inventory.ledger.enabled=true}.
+     */
+    LEDGER;
+
+    /**
+     * Whether the mode mutates the inventory row directly inside the caller's transaction.
+     */
+    public boolean usesInventoryRow() {
+        return this == OPTIMISTIC || this == PESSIMISTIC || this == ATOMIC;
+    }
+}
@@ -0,0 +1,85 @@
+package com.commerce.service;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.commerce.model.Inventory;
+
+/**
+ * Base for strategies that load the Inventory entity, mutate it in memory and write it back.
+ * Subclasses decide how the row is loaded (and locked) and how it is saved.
+ */
+abstract class EntityStockStrategy implements StockConcurrencyStrategy {
+
+    private static final Logger logger = LoggerFactory.getLogger(EntityStockStrategy.class);
+
+    /**
+     * Load the inventory row for mutation.
+     */
+    protected abstract Optional<Inventory> load(UUID productId);
+
+    /**
+     * Write the mutated row back.
+     */
+    protected abstract void save(Inventory inventory);
+
+    @Override
+    public Optional<StockLevel> reserve(UUID productId, int quantity, UUID orderId) {
+        return mutate(productId,
+                inventory -> inventory.hasAvailableStock(quantity),
+                inventory -> inventory.reserveStock(quantity));
+    }
+
+    @Override
+    public Optional<StockLevel> release(UUID productId, int quantity, UUID orderId) {
+        return mutate(productId,
+                inventory -> inventory.getReservedQuantity() >= quantity,
+                inventory -> inventory.releaseReservedStock(quantity));
+    }
+
+    @Override
+    public Optional<StockLevel> confirm(UUID productId, int quantity, UUID orderId) {
+        return mutate(productId,
+                inventory -> inventory.getReservedQuantity() >= quantity,
+                inventory -> inventory.confirmAllocation(quantity));
+    }
+
+    @Override
+    public Optional<StockLevel> setQuantity(UUID productId, int quantity) {
+        return mutate(productId,
+                inventory -> true,
+                inventory -> inventory.setQuantity(quantity));
+    }
+
+    private Optional<StockLevel> mutate(UUID productId, Predicate<Inventory> guard, Consumer<Inventory> mutation) {
+        Optional<Inventory> inventoryOpt = load(productId);
+
+        if (inventoryOpt.isEmpty()) {
+            logger.warn("Product not found: {}", productId);
+            return Optional.empty();
+        }
+
+        Inventory inventory = inventoryOpt.get();
+
+        // Split on another instance before this one noticed: the buckets hold the stock now
+        if (inventory.isSplit()) {
+            logger.warn("Stock change refused for split product: {}", productId);
+            return Optional.empty();
+        }
+
+        if (!guard.test(inventory)) {
+            logger.warn("Stock change rejected for product: {}, quantity: {}, reserved: {}",
+                       productId, inventory.getQuantity(), inventory.getReservedQuantity());
+            return Optional.empty();
+        }
+
+        mutation.accept(inventory);
+        save(inventory);
+        return Optional.of(StockLevel.fromInventory(inventory));
+    }
+}
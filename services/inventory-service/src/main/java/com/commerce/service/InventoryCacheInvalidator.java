@@ -0,0 +1,136 @@
+package com.commerce.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.commerce.cache.CacheInvalidationBroadcaster;
+import com.commerce.cache.RefreshingCache;
+import com.commerce.config.CacheConfig;
+import com.commerce.event.ProductChangedEvent;
+
+/**
+ * Evicts exactly the cache entries a stock or product change makes stale: the product's
+ * {@code inventory} and {@code stock-level} entries and the {@code products} listing.
+ * Other products stay cached.
+ *
+ * <p>Keys touched in a transaction are collected and deleted with one DEL after commit, so a reader
+ * cannot re-cache pre-commit values after eviction, and bulk changes cost one round trip per chunk.
+ * Outside a transaction keys are deleted immediately. Caches with a stale-while-revalidate policy
+ * have their entries marked stale instead of deleted, so readers never see a cold miss on them.
+ */
+@Component
+public class InventoryCacheInvalidator {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryCacheInvalidator.class);
+    private static final int DELETE_CHUNK = 1000;
+    // RedisCacheConfiguration's default key prefix is "<cacheName>::"; the listing is cached under 'all'
+    private static final String PRODUCTS_KEY = CacheConfig.PRODUCTS_CACHE + "::all";
+
+    private final StringRedisTemplate redisTemplate;
+    private final CacheInvalidationBroadcaster broadcaster;
+    private final CacheManager cacheManager;
+    private final StockLevelCache stockLevelCache;
+
+    public InventoryCacheInvalidator(StringRedisTemplate redisTemplate, CacheInvalidationBroadcaster broadcaster,
+                                     CacheManager cacheManager, StockLevelCache stockLevelCache) {
+        this.redisTemplate = redisTemplate;
+        this.broadcaster = broadcaster;
+        this.cacheManager = cacheManager;
+        this.stockLevelCache = stockLevelCache;
+    }
+
+    @EventListener
+    public void onStockLevelChanged(StockLevelChangedEvent event) {
+        evictProduct(event.level().productId());
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        evictProduct(event.productId());
+    }
+
+    /**
+     * Evict the cached inventory of one product.
+     */
+    public void evictProduct(UUID productId) {
+        List<String> keys = new ArrayList<>(3);
+        keys.add(CacheConfig.INVENTORY_CACHE + "::" + productId);
+        keys.add(StockLevelCache.keyFor(productId));
+        keys.add(PRODUCTS_KEY);
+        schedule(keys);
+    }
+
+    private void schedule(List<String> keys) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            delete(keys);
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        Set<String> pending = (Set<String>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Set<String> keysToDelete = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(this, keysToDelete);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    delete(new ArrayList<>(keysToDelete));
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(InventoryCacheInvalidator.this);
+                }
+            });
+            pending = keysToDelete;
+        }
+        pending.addAll(keys);
+    }
+
+    private void delete(List<String> keys) {
+        List<String> toDelete = new ArrayList<>(keys.size());
+        try {
+            // Before the DEL, so a write-back racing this eviction sees the new generation
+            stockLevelCache.advanceGenerations(keys);
+            for (String key : keys) {
+                if (!markStale(key)) {
+                    toDelete.add(key);
+                }
+            }
+            for (int from = 0; from < toDelete.size(); from += DELETE_CHUNK) {
+                redisTemplate.delete(toDelete.subList(from, Math.min(from + DELETE_CHUNK, toDelete.size())));
+            }
+            logger.debug("Evicted {} cache entries", keys.size());
+        } catch (Exception e) {
+            logger.warn("Cache eviction failed, {} entries expire with their TTL: {}", keys.size(), e.getMessage());
+        }
+        // In-process tiers, here and on other instances
+        broadcaster.publish(keys);
+    }
+
+    private boolean markStale(String key) {
+        int separator = key.indexOf("::");
+        if (separator < 0 || key.startsWith(CacheConfig.STOCK_LEVEL_CACHE + "::")) {
+            return false;
+        }
+        Cache cache = cacheManager.getCache(key.substring(0, separator));
+        if (cache instanceof RefreshingCache refreshing && refreshing.servesStale()) {
+            refreshing.evict(key.substring(separator + 2));
+            return true;
+        }
+        return false;
+    }
+}
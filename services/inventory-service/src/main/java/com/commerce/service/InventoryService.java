@@ -1,29 +1,47 @@
 package com.commerce.service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.OptimisticLockingFailureException;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.retry.annotation.Backoff;
 import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
+import com.commerce.config.ReplicaRoutingDataSource;
+import com.commerce.dto.BatchReservationRequest;
+import com.commerce.dto.InventoryPage;
 import com.commerce.dto.InventoryResponse;
+import com.commerce.dto.ReservationItem;
 import com.commerce.dto.StockReservationRequest;
 import com.commerce.event.InventoryEvent;
+import com.commerce.event.InventoryEventPublisher;
 import com.commerce.model.Inventory;
 import com.commerce.repository.InventoryRepository;
 import com.commerce.repository.ProductRepository;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
 /**
  * High-performance inventory service with caching and event publishing.
  */
@@ -32,51 +50,138 @@ import com.commerce.repository.ProductRepository;
 public class InventoryService {
 
     private static final Logger logger = LoggerFactory.getLogger(InventoryService.class);
-    private static final String INVENTORY_TOPIC = "inventory-events";
+    // Keeps IN lists well under the driver's 32767 bind-parameter limit
+    private static final int IN_CHUNK = 1000;
+
+    public static final String SORT_PRODUCT_ID = "productId";
+    public static final String SORT_SKU = "sku";
 
     private final InventoryRepository inventoryRepository;
     private final ProductRepository productRepository;
-    private final KafkaTemplate<String, InventoryEvent> kafkaTemplate;
+    private final InventoryEventPublisher eventPublisher;
+    private final StockStrategySelector strategySelector;
+    private final SplitCounterService splitCounterService;
+    private final InventoryValuation inventoryValuation;
+    private final LowStockIndex lowStockIndex;
+    private final StockLevelCache stockLevelCache;
+    private final InventoryCacheInvalidator cacheInvalidator;
+    private final KnownProductFilter knownProducts;
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Autowired
     public InventoryService(InventoryRepository inventoryRepository,
                            ProductRepository productRepository,
-                           KafkaTemplate<String, InventoryEvent> kafkaTemplate) {
+                           InventoryEventPublisher eventPublisher,
+                           StockStrategySelector strategySelector,
+                           SplitCounterService splitCounterService,
+                           InventoryValuation inventoryValuation,
+                           LowStockIndex lowStockIndex,
+                           StockLevelCache stockLevelCache,
+                           InventoryCacheInvalidator cacheInvalidator,
+                           KnownProductFilter knownProducts,
+                           ApplicationEventPublisher applicationEventPublisher) {
         this.inventoryRepository = inventoryRepository;
         this.productRepository = productRepository;
-        this.kafkaTemplate = kafkaTemplate;
+        this.eventPublisher = eventPublisher;
+        this.strategySelector = strategySelector;
+        this.splitCounterService = splitCounterService;
+        this.inventoryValuation = inventoryValuation;
+        this.lowStockIndex = lowStockIndex;
+        this.stockLevelCache = stockLevelCache;
+        this.cacheInvalidator = cacheInvalidator;
+        this.knownProducts = knownProducts;
+        this.applicationEventPublisher = applicationEventPublisher;
     }
 
     /**
      * Get all products with inventory information.
+     * Read from the primary: a lagging replica would re-cache values an eviction just removed.
      */
-    @Cacheable(value = "products", key = "'all'")
+    @Cacheable(value = "products", key = "'all'", sync = true)
+    @Transactional(readOnly = true)
     public List<InventoryResponse> getAllProducts() {
         logger.debug("Getting all products with inventory");
         
-        List<Inventory> inventories = inventoryRepository.findAll();
-        
-        return inventories.stream()
+        return ReplicaRoutingDataSource.onPrimary(() -> inventoryRepository.findAll()
+                .stream()
+                .map(this::mapToInventoryResponse)
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Get one keyset page of products ordered by product ID or SKU.
+     * Each page is an index range scan, so cost does not grow with the page number.
+     *
+     * @param after cursor from the previous page's {@code nextCursor}, or null for the first page
+     */
+    @Transactional(readOnly = true)
+    public InventoryPage getProductsPage(String sort, String after, int limit) {
+        logger.debug("Getting products page: sort={}, after={}, limit={}", sort, after, limit);
+
+        PageRequest page = PageRequest.ofSize(limit);
+        boolean bySku = SORT_SKU.equals(sort);
+        List<Inventory> inventories;
+        if (bySku) {
+            inventories = after == null
+                    ? inventoryRepository.findFirstPageBySku(page)
+                    : inventoryRepository.findPageAfterSku(after, page);
+        } else {
+            inventories = after == null
+                    ? inventoryRepository.findFirstPageByProductId(page)
+                    : inventoryRepository.findPageAfterProductId(UUID.fromString(after), page);
+        }
+
+        String nextCursor = null;
+        if (inventories.size() == limit) {
+            Inventory last = inventories.get(inventories.size() - 1);
+            nextCursor = bySku ? last.getProduct().getSku() : last.getProductId().toString();
+        }
+
+        List<InventoryResponse> items = inventories.stream()
                 .map(this::mapToInventoryResponse)
                 .collect(Collectors.toList());
+        return new InventoryPage(items, bySku ? SORT_SKU : SORT_PRODUCT_ID, limit, nextCursor);
+    }
+
+    /**
+     * Stream every product to the sink as rows come off a database cursor.
+     * Entities are detached once written, so memory stays flat regardless of catalog size.
+     */
+    @Transactional(readOnly = true)
+    public void streamProducts(String sort, Consumer<InventoryResponse> sink) {
+        logger.debug("Streaming products: sort={}", sort);
+
+        try (Stream<Inventory> rows = SORT_SKU.equals(sort)
+                ? inventoryRepository.streamAllOrderBySku()
+                : inventoryRepository.streamAllOrderByProductId()) {
+            rows.forEach(inventory -> {
+                sink.accept(mapToInventoryResponse(inventory));
+                entityManager.detach(inventory.getProduct());
+                entityManager.detach(inventory);
+            });
+        }
     }
 
     /**
-     * Get inventory for a product with caching.
+     * Get inventory for a product with caching. Loaded from the primary, like every cached read.
      */
-    @Cacheable(value = "inventory", key = "#productId")
+    @Cacheable(value = "inventory", key = "#productId", sync = true)
     @Transactional(readOnly = true)
     public Optional<InventoryResponse> getInventory(UUID productId) {
         logger.debug("Getting inventory for product: {}", productId);
         
-        return inventoryRepository.findByProductIdWithProduct(productId)
-                .map(this::mapToInventoryResponse);
+        return ReplicaRoutingDataSource.onPrimary(() -> inventoryRepository.findByProductIdWithProduct(productId)
+                .map(this::mapToInventoryResponse));
     }
 
     /**
-     * Get inventory by SKU.
+     * Get inventory by SKU. Not cached: SKUs normally resolve to a product ID through
+     * {@link KnownProductFilter} and are served from the product ID cache; this query only
+     * answers until that index is built.
      */
-    @Cacheable(value = "inventory-sku", key = "#sku")
     @Transactional(readOnly = true)
     public Optional<InventoryResponse> getInventoryBySku(String sku) {
         logger.debug("Getting inventory for SKU: {}", sku);
@@ -86,188 +191,242 @@ public class InventoryService {
     }
 
     /**
-     * Check if stock is available.
+     * Check if stock is available, from the product's cached available count.
      */
-    @Cacheable(value = "stock-availability", key = "#productId + '_' + #quantity")
     @Transactional(readOnly = true)
     public boolean isStockAvailable(UUID productId, Integer quantity) {
         logger.debug("Checking stock availability for product: {}, quantity: {}", productId, quantity);
-        
-        return inventoryRepository.findByProductIdWithProduct(productId)
-                .map(inventory -> inventory.getAvailableQuantity() >= quantity)
-                .orElse(false);
+
+        OptionalInt available = stockLevelCache.available(productId);
+        return available.isPresent() && available.getAsInt() >= quantity;
     }
 
     /**
-     * Reserve stock with optimistic locking and retry.
+     * Reserve stock through the product's concurrency strategy (optimistic, pessimistic, atomic,
+     * split or ledger), retrying optimistic conflicts.
      */
     @Retryable(value = {OptimisticLockingFailureException.class}, maxAttempts = 3, backoff = @Backoff(delay = 100))
-    @CacheEvict(value = {"inventory", "stock-availability", "products"}, key = "#request.productId")
     public boolean reserveStock(StockReservationRequest request) {
         return reserveStock(request.getProductId(), request.getQuantity(), request.getOrderId());
     }
 
     /**
-     * Reserve stock with optimistic locking and retry.
+     * Reserve stock using the product's concurrency strategy, retrying optimistic conflicts.
      */
     @Retryable(value = {OptimisticLockingFailureException.class}, maxAttempts = 3, backoff = @Backoff(delay = 100))
-    @CacheEvict(value = {"inventory", "stock-availability", "products"}, allEntries = true)
     public boolean reserveStock(UUID productId, Integer quantity, UUID orderId) {
         logger.info("Reserving stock: productId={}, quantity={}, orderId={}", productId, quantity, orderId);
 
-        try {
-            Optional<Inventory> inventoryOpt = inventoryRepository.findByProductIdWithProduct(productId);
-            
-            if (inventoryOpt.isEmpty()) {
-                logger.warn("Product not found: {}", productId);
+        if (!knownProducts.exists(productId)) {
+            logger.warn("STOCK_RESERVED rejected for unknown product: {}, order: {}", productId, orderId);
+            return false;
+        }
+        return applyMutation("STOCK_RESERVED", productId, orderId, strategy -> strategy.reserve(productId, quantity, orderId));
+    }
+
+    /**
+     * Reserve every line of a cart in one transaction (all or nothing).
+     * Rows are locked in productId order to avoid deadlocks between overlapping carts.
+     *
+     * @return product IDs that could not be reserved; empty when the whole batch succeeded
+     */
+    public List<UUID> reserveStockBatch(BatchReservationRequest request) {
+        UUID orderId = request.getOrderId();
+        logger.info("Reserving stock batch: orderId={}, lines={}", orderId, request.getItems().size());
+
+        // Merge duplicate lines so each row is locked and updated once
+        Map<UUID, Integer> requested = new LinkedHashMap<>();
+        for (ReservationItem item : request.getItems()) {
+            requested.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+
+        List<UUID> unknown = new ArrayList<>(knownProducts.missing(requested.keySet()));
+        if (!unknown.isEmpty()) {
+            logger.warn("Batch reservation rejected for order: {}, unknown products: {}", orderId, unknown);
+            return unknown;
+        }
+
+        // Split and ledger products reserve through their strategy; everything else is row-locked below
+        Map<UUID, Integer> strategyLines = new LinkedHashMap<>();
+        requested.keySet().removeIf(productId -> {
+            if (strategySelector.modeFor(productId).usesInventoryRow()) {
                 return false;
             }
+            strategyLines.put(productId, requested.get(productId));
+            return true;
+        });
 
-            Inventory inventory = inventoryOpt.get();
-            
-            if (inventory.getAvailableQuantity() < quantity) {
-                logger.warn("Insufficient stock for product: {}, available: {}, requested: {}", 
-                           productId, inventory.getAvailableQuantity(), quantity);
+        List<Inventory> inventories = new ArrayList<>(
+                inventoryRepository.findAllByProductIdInWithLock(new ArrayList<>(requested.keySet())));
+
+        // Rows split on another instance since this one last refreshed: reserve them in their buckets
+        inventories.removeIf(inventory -> {
+            if (!inventory.isSplit()) {
                 return false;
             }
+            splitCounterService.refresh(inventory.getProductId());
+            strategyLines.put(inventory.getProductId(), requested.remove(inventory.getProductId()));
+            return true;
+        });
 
-            // Reserve the stock
-            inventory.setReservedQuantity(inventory.getReservedQuantity() + quantity);
-            inventoryRepository.save(inventory);
+        List<UUID> rejected = new ArrayList<>(requested.keySet());
+        for (Inventory inventory : inventories) {
+            if (inventory.hasAvailableStock(requested.get(inventory.getProductId()))) {
+                rejected.remove(inventory.getProductId());
+            }
+        }
 
-            // Publish inventory event
-            publishInventoryEvent("STOCK_RESERVED", inventory, orderId);
+        // Strategy lines are attempted even when a row line failed, so the caller learns every unavailable line
+        List<StockLevel> strategyLevels = new ArrayList<>();
+        for (Map.Entry<UUID, Integer> line : strategyLines.entrySet()) {
+            Optional<StockLevel> level = strategySelector.strategyFor(line.getKey()).reserve(line.getKey(), line.getValue(), orderId);
+            if (level.isEmpty() && splitCounterService.refresh(line.getKey())) {
+                level = strategySelector.strategyFor(line.getKey()).reserve(line.getKey(), line.getValue(), orderId);
+            }
+            if (level.isPresent()) {
+                strategyLevels.add(level.get());
+            } else {
+                rejected.add(line.getKey());
+            }
+        }
 
-            logger.info("Stock reserved successfully for order: {}", orderId);
-            return true;
+        if (!rejected.isEmpty()) {
+            // Undo reservations already made for this batch (ledger lines compensate on rollback)
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            logger.warn("Batch reservation rejected for order: {}, unavailable products: {}", orderId, rejected);
+            return rejected;
+        }
 
-        } catch (OptimisticLockingFailureException e) {
-            logger.warn("Optimistic locking failure for product: {}, retrying...", productId);
-            throw e; // Will trigger retry
-        } catch (Exception e) {
-            logger.error("Error reserving stock for order: {}", orderId, e);
-            return false;
+        for (Inventory inventory : inventories) {
+            inventory.reserveStock(requested.get(inventory.getProductId()));
         }
+        // Flushed so the published levels carry the incremented row versions
+        inventoryRepository.saveAllAndFlush(inventories);
+
+        for (Inventory inventory : inventories) {
+            publishInventoryEvent("STOCK_RESERVED", inventory, orderId);
+        }
+        for (StockLevel level : strategyLevels) {
+            publishInventoryEvent("STOCK_RESERVED", level, orderId);
+        }
+
+        logger.info("Stock batch reserved successfully for order: {}", orderId);
+        return rejected;
     }
 
     /**
-     * Release reserved stock.
+     * Apply a group of concurrent reservations for one product with a single row lock and update.
+     * Requests are granted in arrival order while stock lasts.
+     *
+     * @return one grant flag per request, in request order
      */
-    @Retryable(value = {OptimisticLockingFailureException.class}, maxAttempts = 3, backoff = @Backoff(delay = 100))
-    @CacheEvict(value = {"inventory", "stock-availability", "products"}, allEntries = true)
-    public boolean releaseReservedStock(UUID productId, Integer quantity, UUID orderId) {
-        logger.info("Releasing reserved stock for order: {}, product: {}, quantity: {}", orderId, productId, quantity);
+    public List<Boolean> reserveStockCombined(UUID productId, List<StockReservationRequest> requests) {
+        logger.info("Reserving combined stock: productId={}, requests={}", productId, requests.size());
 
-        try {
-            Optional<Inventory> inventoryOpt = inventoryRepository.findByProductIdWithProduct(productId);
-            
-            if (inventoryOpt.isEmpty()) {
-                logger.warn("Product not found: {}", productId);
-                return false;
-            }
+        Optional<Inventory> inventoryOpt = inventoryRepository.findByProductIdWithLock(productId);
+        if (inventoryOpt.isEmpty()) {
+            logger.warn("Inventory not found for product: {}", productId);
+            return requests.stream().map(request -> false).collect(Collectors.toList());
+        }
 
-            Inventory inventory = inventoryOpt.get();
-            
-            if (inventory.getReservedQuantity() < quantity) {
-                logger.warn("Cannot release more than reserved for product: {}, reserved: {}, requested: {}", 
-                           productId, inventory.getReservedQuantity(), quantity);
-                return false;
+        Inventory inventory = inventoryOpt.get();
+        if (inventory.isSplit()) {
+            // Split on another instance after the combiner routed here: the buckets hold the stock
+            splitCounterService.refresh(productId);
+            return requests.stream()
+                    .map(request -> applyMutation("STOCK_RESERVED", productId, request.getOrderId(),
+                            strategy -> strategy.reserve(productId, request.getQuantity(), request.getOrderId())))
+                    .collect(Collectors.toList());
+        }
+
+        int available = inventory.getAvailableQuantity();
+        int granted = 0;
+        List<Boolean> results = new ArrayList<>(requests.size());
+        for (StockReservationRequest request : requests) {
+            boolean grant = request.getQuantity() <= available - granted;
+            if (grant) {
+                granted += request.getQuantity();
             }
+            results.add(grant);
+        }
 
-            // Release the reserved stock
-            inventory.setReservedQuantity(inventory.getReservedQuantity() - quantity);
-            inventoryRepository.save(inventory);
+        if (granted == 0) {
+            return results;
+        }
 
-            // Publish inventory event
-            publishInventoryEvent("STOCK_RELEASED", inventory, orderId);
+        int reservedBefore = inventory.getReservedQuantity();
+        inventory.reserveStock(granted);
+        inventoryRepository.saveAndFlush(inventory);
+
+        // One event per granted order, carrying the counters as of that order's grant; they share
+        // the row version, so listeners keep the last (final) one
+        String sku = inventory.getProduct().getSku();
+        long version = StockLevel.version(inventory.getVersion(), 0);
+        int reserved = reservedBefore;
+        for (int i = 0; i < requests.size(); i++) {
+            if (results.get(i)) {
+                StockReservationRequest request = requests.get(i);
+                reserved += request.getQuantity();
+                publishInventoryEvent("STOCK_RESERVED",
+                        new StockLevel(productId, sku, inventory.getQuantity(), reserved, version), request.getOrderId());
+            }
+        }
 
-            logger.info("Reserved stock released successfully for order: {}", orderId);
-            return true;
+        logger.info("Combined reservation granted {} units to {} of {} requests for product: {}",
+                   granted, results.stream().filter(Boolean::booleanValue).count(), requests.size(), productId);
+        return results;
+    }
 
-        } catch (OptimisticLockingFailureException e) {
-            logger.warn("Optimistic locking failure for product: {}, retrying...", productId);
-            throw e; // Will trigger retry
-        } catch (Exception e) {
-            logger.error("Error releasing reserved stock for order: {}", orderId, e);
-            return false;
-        }
+    /**
+     * Release reserved stock.
+     */
+    @Retryable(value = {OptimisticLockingFailureException.class}, maxAttempts = 3, backoff = @Backoff(delay = 100))
+    public boolean releaseReservedStock(UUID productId, Integer quantity, UUID orderId) {
+        logger.info("Releasing reserved stock for order: {}, product: {}, quantity: {}", orderId, productId, quantity);
+
+        return applyMutation("STOCK_RELEASED", productId, orderId, strategy -> strategy.release(productId, quantity, orderId));
     }
 
     /**
      * Confirm stock allocation (convert reserved to sold).
      */
     @Retryable(value = {OptimisticLockingFailureException.class}, maxAttempts = 3, backoff = @Backoff(delay = 100))
-    @CacheEvict(value = {"inventory", "stock-availability", "products"}, allEntries = true)
     public boolean confirmAllocation(UUID productId, Integer quantity, UUID orderId) {
         logger.info("Confirming allocation for order: {}, product: {}, quantity: {}", orderId, productId, quantity);
 
-        try {
-            Optional<Inventory> inventoryOpt = inventoryRepository.findByProductIdWithProduct(productId);
-            
-            if (inventoryOpt.isEmpty()) {
-                logger.warn("Product not found: {}", productId);
-                return false;
-            }
-
-            Inventory inventory = inventoryOpt.get();
-            
-            if (inventory.getReservedQuantity() < quantity) {
-                logger.warn("Cannot confirm more than reserved for product: {}, reserved: {}, requested: {}", 
-                           productId, inventory.getReservedQuantity(), quantity);
-                return false;
-            }
-
-            // Confirm allocation: reduce both total and reserved quantities
-            inventory.setQuantity(inventory.getQuantity() - quantity);
-            inventory.setReservedQuantity(inventory.getReservedQuantity() - quantity);
-            inventoryRepository.save(inventory);
-
-            // Publish inventory event
-            publishInventoryEvent("STOCK_ALLOCATED", inventory, orderId);
-
-            logger.info("Stock allocation confirmed for order: {}", orderId);
-            return true;
-
-        } catch (OptimisticLockingFailureException e) {
-            logger.warn("Optimistic locking failure for product: {}, retrying...", productId);
-            throw e; // Will trigger retry
-        } catch (Exception e) {
-            logger.error("Error confirming allocation for order: {}", orderId, e);
-            return false;
-        }
+        return applyMutation("STOCK_ALLOCATED", productId, orderId, strategy -> strategy.confirm(productId, quantity, orderId));
     }
 
     /**
      * Update inventory quantity.
      */
-    @CacheEvict(value = {"inventory", "stock-availability", "products"}, allEntries = true)
+    @Retryable(retryFor = {OptimisticLockingFailureException.class}, maxAttempts = 3, backoff = @Backoff(delay = 100))
     public boolean updateInventory(UUID productId, Integer newQuantity) {
         logger.info("Updating inventory for product: {}, new quantity: {}", productId, newQuantity);
 
-        try {
-            Optional<Inventory> inventoryOpt = inventoryRepository.findByProductIdWithProduct(productId);
-            
-            if (inventoryOpt.isEmpty()) {
-                logger.warn("Product not found: {}", productId);
-                return false;
-            }
-
-            Inventory inventory = inventoryOpt.get();
-            Integer oldQuantity = inventory.getQuantity();
-            inventory.setQuantity(newQuantity);
-            inventoryRepository.save(inventory);
-
-            // Publish inventory event
-            publishInventoryEvent("INVENTORY_UPDATED", inventory, null);
+        return applyMutation("INVENTORY_UPDATED", productId, null, strategy -> strategy.setQuantity(productId, newQuantity));
+    }
 
-            logger.info("Inventory updated for product: {}, old: {}, new: {}", 
-                       productId, oldQuantity, newQuantity);
-            return true;
+    /**
+     * Split a product's stock into escrow buckets so concurrent reservations spread across rows.
+     */
+    public boolean splitInventory(UUID productId, int buckets) {
+        boolean split = splitCounterService.split(productId, buckets);
+        if (split) {
+            cacheInvalidator.evictProduct(productId);
+        }
+        return split;
+    }
 
-        } catch (Exception e) {
-            logger.error("Error updating inventory for product: {}", productId, e);
-            return false;
+    /**
+     * Merge a split product's buckets back into a single inventory row.
+     */
+    public boolean mergeInventory(UUID productId) {
+        boolean merged = splitCounterService.merge(productId);
+        if (merged) {
+            cacheInvalidator.evictProduct(productId);
         }
+        return merged;
     }
 
     /**
@@ -276,10 +435,30 @@ public class InventoryService {
     @Transactional(readOnly = true)
     public List<InventoryResponse> getLowStockItems(Integer threshold) {
         logger.debug("Getting low stock items with threshold: {}", threshold);
-        
-        return inventoryRepository.findLowStockItems(threshold)
-                .stream()
-                .map(InventoryResponse::fromInventory)
+
+        if (!lowStockIndex.isReady()) {
+            return inventoryRepository.findLowStockItems(threshold)
+                    .stream()
+                    .map(this::mapToInventoryResponse)
+                    .collect(Collectors.toList());
+        }
+
+        // Range read from the index, then chunked IN queries for the details, kept in index order
+        List<UUID> productIds = lowStockIndex.productIdsAtOrBelow(threshold);
+        if (productIds.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, Inventory> inventories = new HashMap<>(productIds.size() * 2);
+        for (int from = 0; from < productIds.size(); from += IN_CHUNK) {
+            List<UUID> chunk = productIds.subList(from, Math.min(from + IN_CHUNK, productIds.size()));
+            for (Inventory inventory : inventoryRepository.findAllByProductIdInWithProduct(chunk)) {
+                inventories.put(inventory.getProductId(), inventory);
+            }
+        }
+        return productIds.stream()
+                .map(inventories::get)
+                .filter(Objects::nonNull)
+                .map(this::mapToInventoryResponse)
                 .collect(Collectors.toList());
     }
 
@@ -292,50 +471,128 @@ public class InventoryService {
         
         return inventoryRepository.findByProductCategory(category)
                 .stream()
-                .map(InventoryResponse::fromInventory)
+                .map(this::mapToInventoryResponse)
                 .collect(Collectors.toList());
     }
 
     /**
-     * Get total inventory value.
+     * Get total inventory value from the running valuation, or the full query until it has loaded.
      */
-    @Cacheable(value = "inventory-value")
     @Transactional(readOnly = true)
     public Double getTotalInventoryValue() {
+        if (inventoryValuation.isReady()) {
+            return inventoryValuation.totalValue().doubleValue();
+        }
+
         logger.debug("Calculating total inventory value");
-        
         Double value = inventoryRepository.getTotalInventoryValue();
         return value != null ? value : 0.0;
     }
 
+    /**
+     * Get inventory value per category.
+     */
+    public Map<String, Double> getCategoryInventoryValues() {
+        Map<String, Double> values = new LinkedHashMap<>();
+        if (inventoryValuation.isReady()) {
+            inventoryValuation.categoryValues().forEach((category, value) -> values.put(category, value.doubleValue()));
+            return values;
+        }
+
+        logger.debug("Calculating inventory value per category");
+        for (Object[] row : inventoryRepository.getCategoryInventoryValues()) {
+            double value = row[1] != null ? ((Number) row[1]).doubleValue() : 0.0;
+            if (value != 0) {
+                values.put((String) row[0], value);
+            }
+        }
+        return values;
+    }
+
     /**
      * Map inventory entity to response DTO.
      */
     private InventoryResponse mapToInventoryResponse(Inventory inventory) {
-        return InventoryResponse.fromInventory(inventory);
+        InventoryResponse response = InventoryResponse.fromInventory(inventory);
+        // Split and ledger products keep live counters outside the row
+        strategySelector.strategyFor(inventory.getProductId()).liveLevel(inventory.getProductId())
+                .ifPresent(level -> {
+                    response.setQuantity(level.quantity());
+                    response.setReservedQuantity(level.reservedQuantity());
+                    response.setAvailableQuantity(level.availableQuantity());
+                });
+        return response;
     }
 
     /**
-     * Publish inventory event to Kafka.
+     * Apply a stock mutation through the product's concurrency strategy and publish its event.
+     * Optimistic conflicts are counted for automatic strategy switching and rethrown for retry.
      */
-    private void publishInventoryEvent(String eventType, Inventory inventory, UUID orderId) {
+    private boolean applyMutation(String eventType, UUID productId, UUID orderId,
+                                  Function<StockConcurrencyStrategy, Optional<StockLevel>> mutation) {
+        StockConcurrencyStrategy strategy = strategySelector.strategyFor(productId);
+        boolean optimistic = strategy.mode() == ConcurrencyMode.OPTIMISTIC;
+
+        Optional<StockLevel> level;
         try {
-            InventoryEvent event = new InventoryEvent(
-                eventType,
-                inventory.getProductId(),
-                inventory.getProduct().getSku(),
-                inventory.getQuantity(),
-                inventory.getReservedQuantity(),
-                inventory.getAvailableQuantity(),
-                orderId
-            );
-
-            kafkaTemplate.send(INVENTORY_TOPIC, inventory.getProductId().toString(), event);
-            logger.debug("Published inventory event: {} for product: {}", eventType, inventory.getProductId());
+            level = mutation.apply(strategy);
+            if (optimistic) {
+                strategySelector.recordAttempt(productId, false);
+            }
 
+            // Refused because another instance split or merged the product: retry through the strategy now in charge
+            if (level.isEmpty() && splitCounterService.refresh(productId)) {
+                strategy = strategySelector.strategyFor(productId);
+                level = mutation.apply(strategy);
+            }
+        } catch (OptimisticLockingFailureException e) {
+            if (optimistic) {
+                strategySelector.recordAttempt(productId, true);
+            }
+            logger.warn("Optimistic locking failure for product: {}, retrying...", productId);
+            throw e; // Will trigger retry
         } catch (Exception e) {
-            logger.error("Error publishing inventory event: {} for product: {}", 
-                        eventType, inventory.getProductId(), e);
+            logger.error("Error applying {} for product: {}, order: {}", eventType, productId, orderId, e);
+            return false;
         }
+
+        if (level.isEmpty()) {
+            logger.warn("{} rejected for product: {}, order: {} - insufficient quantity or product not found",
+                       eventType, productId, orderId);
+            return false;
+        }
+
+        // Outside the catch: an outbox failure must fail the request and roll the stock change back
+        publishInventoryEvent(eventType, level.get(), orderId);
+
+        logger.info("{} applied for product: {}, order: {} ({})", eventType, productId, orderId, strategy.mode());
+        return true;
+    }
+
+    /**
+     * Record inventory event in the outbox.
+     */
+    private void publishInventoryEvent(String eventType, Inventory inventory, UUID orderId) {
+        publishInventoryEvent(eventType, StockLevel.fromInventory(inventory), orderId);
+    }
+
+    /**
+     * Record inventory event in the outbox, in the current transaction.
+     * A failure here rolls the stock change back rather than losing the event.
+     */
+    private void publishInventoryEvent(String eventType, StockLevel level, UUID orderId) {
+        InventoryEvent event = new InventoryEvent(
+            eventType,
+            level.productId(),
+            level.sku(),
+            level.quantity(),
+            level.reservedQuantity(),
+            level.availableQuantity(),
+            orderId
+        );
+
+        eventPublisher.publish(event);
+        applicationEventPublisher.publishEvent(new StockLevelChangedEvent(level));
+        logger.debug("Recorded inventory event: {} for product: {}", eventType, level.productId());
     }
 }
@@ -0,0 +1,248 @@
+package com.commerce.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.PreparedStatement;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.commerce.config.ReplicaRoutingDataSource;
+import com.commerce.event.ProductChangedEvent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Running inventory valuation (quantity x price), overall and per category, kept in cents.
+ *
+ * <p>Every holding change goes through {@link #adjust}, which applies the difference to the
+ * totals under the product's map entry, so totals always equal the sum of holdings. Stock and
+ * price changes arrive as after-commit events with absolute values; stock events older than the
+ * holding's {@link StockLevel#version()} are dropped, since listeners can run out of commit order.
+ * A background reconcile against the full join corrects anything written outside this service. It
+ * replaces a quantity only when the scanned version is newer, and a price only when no event
+ * touched the holding after the scan started.
+ */
+@Component
+public class InventoryValuation {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryValuation.class);
+
+    private static final String UNCATEGORIZED = "Uncategorized";
+    // Split products are read from their buckets, versioned the way StockLevel is
+    private static final String SELECT_HOLDINGS =
+        "SELECT i.product_id, COALESCE(b.quantity, i.quantity) AS quantity, " +
+        "(i.version::bigint << 32) + COALESCE(b.version, 0) AS version, p.price, p.category " +
+        "FROM inventory i JOIN products p ON p.id = i.product_id " +
+        "LEFT JOIN (SELECT product_id, SUM(quantity) AS quantity, SUM(version) AS version " +
+        "           FROM inventory_buckets GROUP BY product_id) b ON b.product_id = i.product_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Counter corrections;
+    private final int fetchSize;
+
+    private final Map<UUID, Holding> holdings = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> categoryCents = new ConcurrentHashMap<>();
+    private final LongAdder totalCents = new LongAdder();
+    private final AtomicLong sequence = new AtomicLong();
+    private volatile boolean ready;
+
+    public InventoryValuation(JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${commerce.inventory.valuation.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.fetchSize = fetchSize;
+        this.corrections = Counter.builder("inventory.valuation.corrections")
+                .description("Holdings corrected by the valuation reconcile")
+                .register(meterRegistry);
+    }
+
+    /**
+     * One product's contribution to the valuation.
+     *
+     * @param version {@link StockLevel#version()} of the quantity
+     * @param seq sequence number of the change that produced this holding
+     */
+    private record Holding(int quantity, long version, long priceCents, String category, long seq) {
+
+        long valueCents() {
+            return quantity * priceCents;
+        }
+    }
+
+    /**
+     * Whether the initial load has completed.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Total inventory value.
+     */
+    public BigDecimal totalValue() {
+        return BigDecimal.valueOf(totalCents.sum(), 2);
+    }
+
+    /**
+     * Inventory value per category.
+     */
+    public Map<String, BigDecimal> categoryValues() {
+        Map<String, BigDecimal> values = new TreeMap<>();
+        categoryCents.forEach((category, cents) -> {
+            long sum = cents.sum();
+            if (sum != 0) {
+                values.put(category, BigDecimal.valueOf(sum, 2));
+            }
+        });
+        return values;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockLevelChanged(StockLevelChangedEvent event) {
+        StockLevel level = event.level();
+        // Products not loaded yet are picked up by the next reconcile
+        adjust(level.productId(), holding -> holding == null || !StockLevel.isNotOlder(level.version(), holding.version())
+                ? holding
+                : new Holding(level.quantity(), level.version(), holding.priceCents(), holding.category(),
+                              sequence.incrementAndGet()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.deleted()) {
+            adjust(event.productId(), holding -> null);
+            return;
+        }
+        long priceCents = toCents(event.price());
+        String category = categoryOf(event.document().category());
+        // New products start at zero quantity until their stock arrives
+        adjust(event.productId(), holding -> holding == null
+                ? new Holding(0, StockLevel.UNVERSIONED, priceCents, category, sequence.incrementAndGet())
+                : new Holding(holding.quantity(), holding.version(), priceCents, category, sequence.incrementAndGet()));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reconcile();
+        ready = true;
+    }
+
+    /**
+     * Compare every holding with the database and correct the differences.
+     */
+    @Scheduled(fixedDelayString = "${commerce.inventory.valuation.reconcile-interval-ms:300000}",
+               initialDelayString = "${commerce.inventory.valuation.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        long start = System.currentTimeMillis();
+        long scanStart = sequence.get();
+        Set<UUID> seen = new HashSet<>();
+        long[] corrected = {0};
+        long[] driftCents = {0};
+
+        // Compared against event-driven state, so never read from a lagging replica
+        ReplicaRoutingDataSource.onPrimary(() -> readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SELECT_HOLDINGS);
+            ps.setFetchSize(fetchSize);
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            UUID productId = rs.getObject("product_id", UUID.class);
+            Holding scanned = new Holding(rs.getInt("quantity"), rs.getLong("version"),
+                                          toCents(rs.getBigDecimal("price")), categoryOf(rs.getString("category")), 0);
+            seen.add(productId);
+            adjust(productId, holding -> {
+                if (holding == null) {
+                    corrected[0]++;
+                    driftCents[0] += scanned.valueCents();
+                    return new Holding(scanned.quantity(), scanned.version(), scanned.priceCents(),
+                                       scanned.category(), sequence.incrementAndGet());
+                }
+                // Unversioned (ledger) quantities fall back to the event sequence
+                boolean keepQuantity = holding.version() == StockLevel.UNVERSIONED
+                        ? holding.seq() > scanStart
+                        : holding.version() >= scanned.version();
+                boolean keepPrice = holding.seq() > scanStart;
+                Holding merged = new Holding(
+                        keepQuantity ? holding.quantity() : scanned.quantity(),
+                        keepQuantity ? holding.version() : scanned.version(),
+                        keepPrice ? holding.priceCents() : scanned.priceCents(),
+                        keepPrice ? holding.category() : scanned.category(),
+                        holding.seq());
+                if (merged.quantity() == holding.quantity() && merged.priceCents() == holding.priceCents()
+                        && merged.category().equals(holding.category())) {
+                    // At most the version moved on, with nothing to correct
+                    return merged.equals(holding) ? holding : merged;
+                }
+                corrected[0]++;
+                driftCents[0] += merged.valueCents() - holding.valueCents();
+                return new Holding(merged.quantity(), merged.version(), merged.priceCents(), merged.category(),
+                                   sequence.incrementAndGet());
+            });
+        })));
+
+        for (UUID productId : holdings.keySet()) {
+            if (!seen.contains(productId)) {
+                adjust(productId, holding -> holding == null || holding.seq() > scanStart ? holding : null);
+            }
+        }
+
+        if (ready && corrected[0] > 0) {
+            corrections.increment(corrected[0]);
+            logger.warn("Valuation reconcile corrected {} holdings, drift {} cents", corrected[0], driftCents[0]);
+        }
+        logger.debug("Valuation reconciled {} holdings in {}ms", seen.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Replace one holding and move the difference into the totals atomically for that product.
+     */
+    private void adjust(UUID productId, UnaryOperator<Holding> change) {
+        holdings.compute(productId, (id, current) -> {
+            Holding updated = change.apply(current);
+            if (updated == current) {
+                return current;
+            }
+            if (current != null) {
+                categoryCents.computeIfAbsent(current.category(), category -> new LongAdder()).add(-current.valueCents());
+                totalCents.add(-current.valueCents());
+            }
+            if (updated != null) {
+                categoryCents.computeIfAbsent(updated.category(), category -> new LongAdder()).add(updated.valueCents());
+                totalCents.add(updated.valueCents());
+            }
+            return updated;
+        });
+    }
+
+    private static long toCents(BigDecimal price) {
+        return price == null ? 0 : price.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static String categoryOf(String category) {
+        return category == null ? UNCATEGORIZED : category;
+    }
+}
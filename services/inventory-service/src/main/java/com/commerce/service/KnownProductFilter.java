@@ -0,0 +1,347 @@
+package com.commerce.service;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.commerce.cache.BloomFilter;
+import com.commerce.cache.SkuIndex;
+import com.commerce.config.ReplicaRoutingDataSource;
+import com.commerce.event.ProductChangedEvent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * A Bloom filter of every known product ID and an exact {@link SkuIndex} of every SKU, so lookups for
+ * products that do not exist (bots, stale carts, typos) are answered without touching Redis or Postgres.
+ * Without it every such ID costs a Redis round trip, plus a query the first time, after which the empty
+ * result sits in Redis as a cached {@code NullValue}. Known SKUs resolve to their product ID in memory
+ * and share the product ID cache.
+ *
+ * <p>Built at startup and rebuilt nightly, sized from the catalog with headroom for growth; products
+ * created through this service are added after commit, and rows written elsewhere are picked up by a
+ * periodic {@code updated_at} delta sync. {@code updated_at} is stamped by the database at transaction
+ * start, so the sync watermark is taken from the database too: the earlier of its clock and the start of
+ * the oldest open transaction, whose rows may still commit with an older stamp. Until the first build completes every key passes and SKUs are
+ * looked up in the database. Deleted products stay in the Bloom filter until the next rebuild and simply
+ * fall through to the database; they are removed from the SKU index right away.
+ *
+ * <p>A product created on another instance is missing from the filter until the next sync, so reads may
+ * 404 for up to a sync interval. Write paths use {@link #missing(Collection)}, which confirms negatives
+ * against the database in one query and adds the products found, so orders for new products are never refused.
+ *
+ * <p>Rejections are counted as {@code inventory.bloom.lookups{result=rejected}}; product IDs that passed but
+ * turned out not to exist as {@code result=false_positive}, and rejected IDs the database had as
+ * {@code result=false_negative}, next to the filter's estimated rate
+ * {@code inventory.bloom.false.positive.rate}. The SKU index reports its size and footprint as
+ * {@code inventory.sku.index.entries} and {@code inventory.sku.index.memory}.
+ */
+@Component
+public class KnownProductFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(KnownProductFilter.class);
+
+    private static final String SELECT_KEYS = "SELECT id, sku FROM products";
+    private static final String SELECT_COUNT = "SELECT COUNT(*) FROM products";
+    private static final String SELECT_KEYS_IN = SELECT_KEYS + " WHERE id = ANY(?)";
+    // Rows of transactions still open may commit later with an updated_at from before now
+    private static final String SELECT_WATERMARK =
+        "SELECT LEAST(LOCALTIMESTAMP, COALESCE(MIN(xact_start)::timestamp, LOCALTIMESTAMP)) " +
+        "FROM pg_stat_activity WHERE xact_start IS NOT NULL";
+    // Margin for sessions pg_stat_activity does not show this role (their transactions have no xact_start)
+    private static final Duration SYNC_OVERLAP = Duration.ofSeconds(5);
+    private static final long MINIMUM_CAPACITY = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+    private final double falsePositiveRate;
+    private final double headroom;
+    private final int fetchSize;
+
+    private volatile Filters filters;
+    // Filters being built; product writes are applied to them too so none are lost during a rebuild
+    private volatile Filters building;
+    private volatile LocalDateTime watermark;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    private final Counter idsRejected;
+    private final Counter idsFalsePositive;
+    private final Counter idsFalseNegative;
+    private final Counter skusRejected;
+
+    private record Filters(BloomFilter productIds, SkuIndex skus) {
+
+        static Filters create(long expectedInsertions, double falsePositiveRate) {
+            return new Filters(BloomFilter.create(expectedInsertions, falsePositiveRate),
+                    new SkuIndex(Math.toIntExact(expectedInsertions)));
+        }
+
+        void put(UUID productId, String sku) {
+            productIds.put(productId);
+            if (sku != null) {
+                skus.put(productId, sku);
+            }
+        }
+    }
+
+    public KnownProductFilter(JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${commerce.inventory.known-products.enabled:true}") boolean enabled,
+                              @Value("${commerce.inventory.known-products.false-positive-rate:0.01}") double falsePositiveRate,
+                              @Value("${commerce.inventory.known-products.headroom:1.5}") double headroom,
+                              @Value("${commerce.inventory.known-products.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+        this.falsePositiveRate = falsePositiveRate;
+        this.headroom = headroom;
+        this.fetchSize = fetchSize;
+
+        this.idsRejected = lookupCounter(meterRegistry, "product-id", "rejected");
+        this.idsFalsePositive = lookupCounter(meterRegistry, "product-id", "false_positive");
+        this.idsFalseNegative = lookupCounter(meterRegistry, "product-id", "false_negative");
+        this.skusRejected = lookupCounter(meterRegistry, "sku", "rejected");
+        Gauge.builder("inventory.bloom.false.positive.rate", this,
+                      f -> f.filters != null ? f.filters.productIds().expectedFalsePositiveRate() : 0)
+                .description("False-positive rate implied by the bits set in the filter")
+                .tag("filter", "product-id")
+                .register(meterRegistry);
+        Gauge.builder("inventory.sku.index.entries", this, f -> f.filters != null ? f.filters.skus().size() : 0)
+                .description("SKUs in the in-memory SKU index")
+                .register(meterRegistry);
+        Gauge.builder("inventory.sku.index.memory", this, f -> f.filters != null ? f.filters.skus().memoryBytes() : 0)
+                .description("Bytes held by the in-memory SKU index")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("inventory.bloom.insertions", this, f -> f.filters != null ? f.filters.productIds().getInsertions() : 0)
+                .description("Products added to the filter since it was built")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Whether the product may exist; false means it definitely does not.
+     */
+    public boolean mightContain(UUID productId) {
+        if (passes(productId)) {
+            return true;
+        }
+        idsRejected.increment();
+        return false;
+    }
+
+    /**
+     * Whether the product exists, asking the database when the filter says it does not.
+     * For write paths only; see {@link #missing(Collection)}.
+     */
+    public boolean exists(UUID productId) {
+        return missing(List.of(productId)).isEmpty();
+    }
+
+    /**
+     * Products that do not exist, confirming the filter's negatives with one query on the primary.
+     * For write paths, where turning away a product the filter has not synced yet loses an order;
+     * products found this way are added to the filter.
+     */
+    public Set<UUID> missing(Collection<UUID> productIds) {
+        Set<UUID> rejected = new LinkedHashSet<>();
+        for (UUID productId : productIds) {
+            if (!passes(productId)) {
+                rejected.add(productId);
+            }
+        }
+        if (rejected.isEmpty()) {
+            return rejected;
+        }
+
+        // Primary: the products may have been created moments ago
+        Filters current = filters;
+        Filters next = building;
+        ReplicaRoutingDataSource.onPrimary(() -> jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SELECT_KEYS_IN);
+            ps.setArray(1, con.createArrayOf("uuid", rejected.toArray()));
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            UUID productId = rs.getObject("id", UUID.class);
+            String sku = rs.getString("sku");
+            put(current, productId, sku);
+            put(next, productId, sku);
+            rejected.remove(productId);
+            idsFalseNegative.increment();
+            logger.debug("Product {} was missing from the known-product filter, adding it", productId);
+        }));
+        idsRejected.increment(rejected.size());
+        return rejected;
+    }
+
+    /**
+     * Whether the filters are built; until then {@link #productIdOfSku} cannot answer.
+     */
+    public boolean isReady() {
+        return filters != null;
+    }
+
+    /**
+     * Product ID of the SKU, or null when no product has it. Only meaningful once {@link #isReady()}.
+     */
+    public UUID productIdOfSku(String sku) {
+        Filters current = filters;
+        UUID productId = current != null ? current.skus().productIdOf(sku) : null;
+        if (productId == null && current != null) {
+            skusRejected.increment();
+        }
+        return productId;
+    }
+
+    /**
+     * Record a product ID that passed the filter but was not found.
+     */
+    public void recordMissingProduct() {
+        if (filters != null) {
+            idsFalsePositive.increment();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        rebuild();
+    }
+
+    /**
+     * Rebuild from scratch, re-sized for the current catalog; also drops deleted products.
+     */
+    @Scheduled(cron = "${commerce.inventory.known-products.rebuild-cron:0 45 3 * * *}")
+    public void rebuild() {
+        if (!enabled || !rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            LocalDateTime startedAt = databaseWatermark();
+
+            Long count = ReplicaRoutingDataSource.onPrimary(() -> jdbcTemplate.queryForObject(SELECT_COUNT, Long.class));
+            long capacity = Math.max(MINIMUM_CAPACITY, (long) Math.ceil((count != null ? count : 0) * headroom));
+            Filters next = Filters.create(capacity, falsePositiveRate);
+            building = next;
+            load(SELECT_KEYS, null, next);
+            filters = next;
+            building = null;
+            watermark = startedAt.minus(SYNC_OVERLAP);
+
+            int indexed = next.skus().size();
+            long indexBytes = next.skus().memoryBytes();
+            logger.info("Built known-product filter for {} products (capacity {}, {} bits, {} hashes) and SKU index " +
+                       "({} bytes, {} bytes per SKU) in {}ms",
+                       next.productIds().getInsertions(), capacity, next.productIds().getBitCount(),
+                       next.productIds().getHashCount(), indexBytes, indexed > 0 ? indexBytes / indexed : 0,
+                       System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            building = null;
+            logger.error("Failed to build known-product filter, lookups are not filtered until it is built", e);
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    /**
+     * Add products created or renamed outside this service since the last sync.
+     */
+    @Scheduled(fixedDelayString = "${commerce.inventory.known-products.sync-interval-ms:60000}")
+    public void syncChanges() {
+        LocalDateTime since = watermark;
+        Filters current = filters;
+        if (since == null || current == null) {
+            return;
+        }
+        LocalDateTime startedAt = databaseWatermark();
+        load(SELECT_KEYS + " WHERE updated_at > ?", Timestamp.valueOf(since), current);
+        watermark = startedAt.minus(SYNC_OVERLAP);
+
+        // Past its capacity the filter's false-positive rate climbs; re-size early rather than at night
+        if (current.productIds().getInsertions() > current.productIds().getExpectedInsertions()) {
+            logger.info("Known-product filter is over capacity, rebuilding");
+            rebuild();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        apply(filters, event);
+        apply(building, event);
+    }
+
+    private static void put(Filters target, UUID productId, String sku) {
+        if (target != null) {
+            target.put(productId, sku);
+        }
+    }
+
+    private boolean passes(UUID productId) {
+        Filters current = filters;
+        return current == null || productId == null || current.productIds().mightContain(productId);
+    }
+
+    private static void apply(Filters target, ProductChangedEvent event) {
+        if (target == null) {
+            return;
+        }
+        if (event.deleted()) {
+            target.skus().remove(event.productId());
+        } else {
+            target.put(event.productId(), event.document().sku());
+        }
+    }
+
+    private void load(String sql, Timestamp since, Filters sink) {
+        // A lagging replica would skip rows the watermark has already passed, for good
+        ReplicaRoutingDataSource.onPrimary(() -> readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setFetchSize(fetchSize);
+            if (since != null) {
+                ps.setTimestamp(1, since);
+            }
+            return ps;
+        }, (RowCallbackHandler) rs -> sink.put(rs.getObject("id", UUID.class), rs.getString("sku")))));
+    }
+
+    /**
+     * Point before which every committed or still-open change is stamped, on the database's clock.
+     */
+    private LocalDateTime databaseWatermark() {
+        Timestamp timestamp = ReplicaRoutingDataSource.onPrimary(
+                () -> jdbcTemplate.queryForObject(SELECT_WATERMARK, Timestamp.class));
+        return timestamp != null ? timestamp.toLocalDateTime() : LocalDateTime.now();
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String filter, String result) {
+        return Counter.builder("inventory.bloom.lookups")
+                .description("Product lookups answered by the known-product filter")
+                .tag("filter", filter)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,76 @@
+package com.commerce.service;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.commerce.ledger.ReservationLedger;
+
+/**
+ * Decides stock changes in memory through the {@link ReservationLedger}. Because the ledger is not
+ * part of the database transaction, every change registers a compensation that is journaled if the
+ * surrounding transaction rolls back (for example when a later line of a batch reservation fails).
+ */
+@Component
+@ConditionalOnBean(ReservationLedger.class)
+public class LedgerStockStrategy implements StockConcurrencyStrategy {
+
+    private final ReservationLedger ledger;
+
+    public LedgerStockStrategy(ReservationLedger ledger) {
+        this.ledger = ledger;
+    }
+
+    @Override
+    public ConcurrencyMode mode() {
+        return ConcurrencyMode.LEDGER;
+    }
+
+    @Override
+    public Optional<StockLevel> liveLevel(UUID productId) {
+        return ledger.current(productId);
+    }
+
+    @Override
+    public Optional<StockLevel> reserve(UUID productId, int quantity, UUID orderId) {
+        return compensateOnRollback(ledger.reserve(productId, quantity, orderId), 0, -quantity, orderId);
+    }
+
+    @Override
+    public Optional<StockLevel> release(UUID productId, int quantity, UUID orderId) {
+        return compensateOnRollback(ledger.release(productId, quantity, orderId), 0, quantity, orderId);
+    }
+
+    @Override
+    public Optional<StockLevel> confirm(UUID productId, int quantity, UUID orderId) {
+        return compensateOnRollback(ledger.confirm(productId, quantity, orderId), quantity, quantity, orderId);
+    }
+
+    @Override
+    public Optional<StockLevel> setQuantity(UUID productId, int quantity) {
+        Optional<StockLevel> before = ledger.current(productId);
+        Optional<StockLevel> after = ledger.setQuantity(productId, quantity);
+        int undo = before.map(level -> level.quantity() - quantity).orElse(0);
+        return compensateOnRollback(after, undo, 0, null);
+    }
+
+    private Optional<StockLevel> compensateOnRollback(Optional<StockLevel> level, int quantityUndo, int reservedUndo,
+                                                      UUID orderId) {
+        if (level.isPresent() && TransactionSynchronizationManager.isSynchronizationActive()) {
+            UUID productId = level.get().productId();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        ledger.compensate(productId, quantityUndo, reservedUndo, orderId);
+                    }
+                }
+            });
+        }
+        return level;
+    }
+}
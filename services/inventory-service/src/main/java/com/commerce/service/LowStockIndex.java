@@ -0,0 +1,208 @@
+package com.commerce.service;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.commerce.config.ReplicaRoutingDataSource;
+import com.commerce.dto.LowStockAlert;
+
+/**
+ * Products ordered by available quantity, so "at or below N" is a range read of a skip list
+ * instead of an expression scan. Updated after commit from stock mutation events, dropping those
+ * older than the tracked {@link StockLevel#version()}, and checked against the database by a
+ * periodic reconcile, like {@link InventoryValuation}.
+ *
+ * <p>When a product crosses the alert threshold in either direction an alert is pushed to
+ * {@link LowStockNotifier} subscribers.
+ */
+@Component
+public class LowStockIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(LowStockIndex.class);
+
+    // Split products are read from their buckets, versioned the way StockLevel is
+    private static final String SELECT_AVAILABLE =
+        "SELECT i.product_id, COALESCE(b.quantity - b.reserved_quantity, i.quantity - i.reserved_quantity) AS available, " +
+        "(i.version::bigint << 32) + COALESCE(b.version, 0) AS version, p.sku " +
+        "FROM inventory i JOIN products p ON p.id = i.product_id " +
+        "LEFT JOIN (SELECT product_id, SUM(quantity) AS quantity, SUM(reserved_quantity) AS reserved_quantity, " +
+        "                  SUM(version) AS version " +
+        "           FROM inventory_buckets GROUP BY product_id) b ON b.product_id = i.product_id";
+    // Greatest UUID under UUID.compareTo, which compares the halves as signed longs
+    private static final UUID MAX_UUID = new UUID(Long.MAX_VALUE, Long.MAX_VALUE);
+
+    private final LowStockNotifier notifier;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int alertThreshold;
+    private final int fetchSize;
+
+    private final ConcurrentSkipListSet<Entry> byAvailable = new ConcurrentSkipListSet<>(
+            Comparator.comparingInt(Entry::available).thenComparing(Entry::productId));
+    private final Map<UUID, Tracked> tracked = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private volatile boolean ready;
+
+    public LowStockIndex(LowStockNotifier notifier,
+                         JdbcTemplate jdbcTemplate,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${commerce.inventory.low-stock-threshold:10}") int alertThreshold,
+                         @Value("${commerce.inventory.low-stock.fetch-size:1000}") int fetchSize) {
+        this.notifier = notifier;
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.alertThreshold = alertThreshold;
+        this.fetchSize = fetchSize;
+    }
+
+    private record Entry(int available, UUID productId) {}
+
+    /**
+     * Last known state of a product; version orders it against events and scans of versioned
+     * levels, seq against reconcile scans for unversioned ones.
+     */
+    private record Tracked(int available, String sku, long version, long seq) {}
+
+    /**
+     * Whether the initial load has completed.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Product IDs with available quantity at or below the threshold, lowest first.
+     */
+    public List<UUID> productIdsAtOrBelow(int threshold) {
+        List<UUID> productIds = new ArrayList<>();
+        for (Entry entry : byAvailable.headSet(new Entry(threshold, MAX_UUID), true)) {
+            productIds.add(entry.productId());
+        }
+        return productIds;
+    }
+
+    /**
+     * Alerts for every product currently at or below the alert threshold.
+     */
+    public List<LowStockAlert> currentAlerts() {
+        List<LowStockAlert> alerts = new ArrayList<>();
+        for (Entry entry : byAvailable.headSet(new Entry(alertThreshold, MAX_UUID), true)) {
+            Tracked state = tracked.get(entry.productId());
+            String sku = state != null ? state.sku() : null;
+            alerts.add(new LowStockAlert(LowStockAlert.LOW_STOCK, entry.productId(), sku, entry.available(), alertThreshold));
+        }
+        return alerts;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockLevelChanged(StockLevelChangedEvent event) {
+        StockLevel level = event.level();
+        update(level.productId(), level.sku(), level.availableQuantity(), level.version(), Long.MAX_VALUE);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reconcile();
+        ready = true;
+    }
+
+    /**
+     * Re-read available quantities, correcting products not updated by an event since the scan began.
+     */
+    @Scheduled(fixedDelayString = "${commerce.inventory.low-stock.reconcile-interval-ms:60000}",
+               initialDelayString = "${commerce.inventory.low-stock.reconcile-interval-ms:60000}")
+    public void reconcile() {
+        long scanStart = sequence.get();
+        Set<UUID> seen = new HashSet<>();
+
+        // Compared against event-driven state, so never read from a lagging replica
+        ReplicaRoutingDataSource.onPrimary(() -> readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SELECT_AVAILABLE);
+            ps.setFetchSize(fetchSize);
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            UUID productId = rs.getObject("product_id", UUID.class);
+            seen.add(productId);
+            update(productId, rs.getString("sku"), rs.getInt("available"), rs.getLong("version"), scanStart);
+        })));
+
+        for (UUID productId : tracked.keySet()) {
+            if (!seen.contains(productId)) {
+                tracked.computeIfPresent(productId, (id, current) -> {
+                    if (current.seq() > scanStart) {
+                        return current;
+                    }
+                    byAvailable.remove(new Entry(current.available(), id));
+                    return null;
+                });
+            }
+        }
+        logger.debug("Low-stock index reconciled {} products", seen.size());
+    }
+
+    /**
+     * Move a product to its new position.
+     *
+     * @param version {@link StockLevel#version()} of the new state; older updates are skipped
+     * @param notAfter for reconcile scans, skip an unversioned product that changed after this
+     *                 sequence; {@code Long.MAX_VALUE} for event updates
+     */
+    private void update(UUID productId, String sku, int available, long version, long notAfter) {
+        tracked.compute(productId, (id, current) -> {
+            if (current != null && isStale(current, version, notAfter)) {
+                return current;
+            }
+            if (current != null && current.available() != available) {
+                byAvailable.remove(new Entry(current.available(), id));
+            }
+            byAvailable.add(new Entry(available, id));
+
+            String knownSku = sku != null ? sku : current != null ? current.sku() : null;
+            if (ready) {
+                alertOnCrossing(id, knownSku, current == null ? null : current.available(), available);
+            }
+            return new Tracked(available, knownSku, version, sequence.incrementAndGet());
+        });
+    }
+
+    private static boolean isStale(Tracked current, long version, long notAfter) {
+        if (notAfter == Long.MAX_VALUE) {
+            return !StockLevel.isNotOlder(version, current.version());
+        }
+        // A scan replaces only what it is newer than; unversioned (ledger) state falls back to the sequence
+        return current.version() == StockLevel.UNVERSIONED ? current.seq() > notAfter : current.version() >= version;
+    }
+
+    private void alertOnCrossing(UUID productId, String sku, Integer previous, int available) {
+        boolean wasLow = previous != null && previous <= alertThreshold;
+        boolean isLow = available <= alertThreshold;
+        if (isLow && !wasLow) {
+            notifier.publish(new LowStockAlert(LowStockAlert.LOW_STOCK, productId, sku, available, alertThreshold));
+        } else if (wasLow && !isLow) {
+            notifier.publish(new LowStockAlert(LowStockAlert.RESTOCKED, productId, sku, available, alertThreshold));
+        }
+    }
+}
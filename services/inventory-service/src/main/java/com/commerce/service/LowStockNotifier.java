@@ -0,0 +1,81 @@
+package com.commerce.service;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.commerce.dto.LowStockAlert;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Server-sent event subscriptions for low-stock alerts.
+ * Alerts are sent from a dedicated thread, so a slow subscriber never delays a stock mutation.
+ */
+@Component
+public class LowStockNotifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(LowStockNotifier.class);
+
+    private final List<SseEmitter> subscribers = new CopyOnWriteArrayList<>();
+    private final ExecutorService sender = Executors.newSingleThreadExecutor();
+    private final long timeoutMs;
+
+    public LowStockNotifier(@Value("${commerce.inventory.low-stock.subscription-timeout-ms:1800000}") long timeoutMs) {
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Register a subscriber, sending it the products currently at or below the threshold first.
+     */
+    public SseEmitter subscribe(List<LowStockAlert> snapshot) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        emitter.onCompletion(() -> subscribers.remove(emitter));
+        emitter.onTimeout(() -> subscribers.remove(emitter));
+        emitter.onError(error -> subscribers.remove(emitter));
+        subscribers.add(emitter);
+
+        sender.execute(() -> {
+            try {
+                emitter.send(SseEmitter.event().name("snapshot").data(snapshot));
+            } catch (IOException | IllegalStateException e) {
+                subscribers.remove(emitter);
+            }
+        });
+        logger.info("Low-stock subscriber registered ({} active)", subscribers.size());
+        return emitter;
+    }
+
+    /**
+     * Push an alert to every subscriber.
+     */
+    public void publish(LowStockAlert alert) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        sender.execute(() -> {
+            for (SseEmitter emitter : subscribers) {
+                try {
+                    emitter.send(SseEmitter.event().name("low-stock").data(alert));
+                } catch (IOException | IllegalStateException e) {
+                    subscribers.remove(emitter);
+                    emitter.completeWithError(e);
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        subscribers.forEach(SseEmitter::complete);
+        sender.shutdown();
+    }
+}
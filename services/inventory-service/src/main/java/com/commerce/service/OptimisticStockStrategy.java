@@ -0,0 +1,39 @@
+package com.commerce.service;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.stereotype.Component;
+
+import com.commerce.model.Inventory;
+import com.commerce.repository.InventoryRepository;
+
+/**
+ * Optimistic locking on {@code Inventory.version}. Conflicts surface as
+ * {@link org.springframework.dao.OptimisticLockingFailureException} and are retried by {@link InventoryService}.
+ */
+@Component
+public class OptimisticStockStrategy extends EntityStockStrategy {
+
+    private final InventoryRepository inventoryRepository;
+
+    public OptimisticStockStrategy(InventoryRepository inventoryRepository) {
+        this.inventoryRepository = inventoryRepository;
+    }
+
+    @Override
+    public ConcurrencyMode mode() {
+        return ConcurrencyMode.OPTIMISTIC;
+    }
+
+    @Override
+    protected Optional<Inventory> load(UUID productId) {
+        return inventoryRepository.findByProductIdWithProduct(productId);
+    }
+
+    @Override
+    protected void save(Inventory inventory) {
+        // Flush now so a version conflict is raised here and counted, rather than at commit
+        inventoryRepository.saveAndFlush(inventory);
+    }
+}
@@ -0,0 +1,39 @@
+package com.commerce.service;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.stereotype.Component;
+
+import com.commerce.model.Inventory;
+import com.commerce.repository.InventoryRepository;
+
+/**
+ * Row lock ({@code SELECT ... FOR UPDATE}) held until commit. Concurrent writers
+ * wait on the lock instead of failing and retrying, which suits hot SKUs.
+ */
+@Component
+public class PessimisticStockStrategy extends EntityStockStrategy {
+
+    private final InventoryRepository inventoryRepository;
+
+    public PessimisticStockStrategy(InventoryRepository inventoryRepository) {
+        this.inventoryRepository = inventoryRepository;
+    }
+
+    @Override
+    public ConcurrencyMode mode() {
+        return ConcurrencyMode.PESSIMISTIC;
+    }
+
+    @Override
+    protected Optional<Inventory> load(UUID productId) {
+        return inventoryRepository.findByProductIdWithLock(productId);
+    }
+
+    @Override
+    protected void save(Inventory inventory) {
+        // Flush so the published level carries the incremented row version
+        inventoryRepository.saveAndFlush(inventory);
+    }
+}
@@ -0,0 +1,171 @@
+package com.commerce.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.commerce.dto.StockReservationRequest;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Group commit for reservations: concurrent requests for the same product are collected for a short
+ * window (or until the batch is full) and applied in one transaction that grants as many as the stock
+ * allows in arrival order. Each caller then gets its own result. Trades a small bounded delay for far
+ * fewer transactions against a hot row.
+ */
+@Component
+public class ReservationCombiner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReservationCombiner.class);
+
+    private final InventoryService inventoryService;
+    private final StockStrategySelector strategySelector;
+    private final KnownProductFilter knownProducts;
+    private final boolean enabled;
+    private final long windowMicros;
+    private final int maxBatch;
+    private final long timeoutMs;
+    private final ScheduledExecutorService scheduler;
+    private final DistributionSummary batchSizes;
+    private final Map<UUID, Batch> openBatches = new ConcurrentHashMap<>();
+
+    public ReservationCombiner(InventoryService inventoryService,
+                               StockStrategySelector strategySelector,
+                               KnownProductFilter knownProducts,
+                               MeterRegistry meterRegistry,
+                               @Value("${commerce.inventory.combining.enabled:false}") boolean enabled,
+                               @Value("${commerce.inventory.combining.window-micros:2000}") long windowMicros,
+                               @Value("${commerce.inventory.combining.max-batch:64}") int maxBatch,
+                               @Value("${commerce.inventory.combining.timeout-ms:5000}") long timeoutMs,
+                               @Value("${commerce.inventory.combining.threads:4}") int threads) {
+        this.inventoryService = inventoryService;
+        this.strategySelector = strategySelector;
+        this.knownProducts = knownProducts;
+        this.enabled = enabled;
+        this.windowMicros = windowMicros;
+        this.maxBatch = maxBatch;
+        this.timeoutMs = timeoutMs;
+        this.scheduler = Executors.newScheduledThreadPool(threads);
+        this.batchSizes = DistributionSummary.builder("inventory.combining.batch.size")
+                .description("Reservations applied per combined transaction")
+                .register(meterRegistry);
+    }
+
+    /**
+     * A request waiting in a batch.
+     */
+    private record Pending(StockReservationRequest request, CompletableFuture<Boolean> result) {}
+
+    /**
+     * Requests collected for one product during one window.
+     */
+    private static final class Batch {
+
+        final List<Pending> requests = new ArrayList<>();
+        final AtomicBoolean flushed = new AtomicBoolean();
+    }
+
+    /**
+     * Reserve stock, combining with concurrent requests for the same product when enabled.
+     */
+    public boolean reserve(StockReservationRequest request) {
+        if (!knownProducts.exists(request.getProductId())) {
+            logger.warn("Reservation rejected for unknown product: {}, order: {}", request.getProductId(), request.getOrderId());
+            return false;
+        }
+        // Split and ledger products already have their own contention handling
+        if (!enabled || !strategySelector.modeFor(request.getProductId()).usesInventoryRow()) {
+            return inventoryService.reserveStock(request);
+        }
+
+        UUID productId = request.getProductId();
+        Pending pending = new Pending(request, new CompletableFuture<>());
+
+        openBatches.compute(productId, (id, batch) -> {
+            if (batch == null) {
+                Batch opened = new Batch();
+                scheduler.schedule(() -> flush(id, opened), windowMicros, TimeUnit.MICROSECONDS);
+                batch = opened;
+            }
+            batch.requests.add(pending);
+            if (batch.requests.size() >= maxBatch) {
+                Batch full = batch;
+                scheduler.execute(() -> flush(id, full));
+                return null;
+            }
+            return batch;
+        });
+
+        try {
+            return pending.result().get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // If the batch has not run yet this withdraws the request; otherwise flush releases the grant.
+            // A failed cancel means flush completed it first, so its outcome stands
+            if (!pending.result().cancel(false)) {
+                return pending.result().join();
+            }
+            logger.warn("Combined reservation timed out for order: {}", request.getOrderId());
+            return false;
+        } catch (Exception e) {
+            logger.error("Combined reservation failed for order: {}", request.getOrderId(), e);
+            return false;
+        }
+    }
+
+    private void flush(UUID productId, Batch batch) {
+        if (!batch.flushed.compareAndSet(false, true)) {
+            return;
+        }
+        openBatches.remove(productId, batch);
+
+        List<Pending> live = new ArrayList<>(batch.requests.size());
+        List<StockReservationRequest> requests = new ArrayList<>(batch.requests.size());
+        // The window is closed: once out of openBatches the list no longer changes
+        for (Pending pending : batch.requests) {
+            if (!pending.result().isDone()) {
+                live.add(pending);
+                requests.add(pending.request());
+            }
+        }
+        if (live.isEmpty()) {
+            return;
+        }
+
+        batchSizes.record(live.size());
+        try {
+            List<Boolean> granted = inventoryService.reserveStockCombined(productId, requests);
+            for (int i = 0; i < live.size(); i++) {
+                Pending pending = live.get(i);
+                if (!pending.result().complete(granted.get(i)) && granted.get(i)) {
+                    // Caller gave up while the batch was running: hand the stock back
+                    StockReservationRequest request = pending.request();
+                    inventoryService.releaseReservedStock(productId, request.getQuantity(), request.getOrderId());
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Combined reservation batch failed for product: {}", productId, e);
+            live.forEach(pending -> pending.result().complete(false));
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdown();
+    }
+}
@@ -0,0 +1,269 @@
+package com.commerce.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.commerce.model.Inventory;
+import com.commerce.model.InventoryBucket;
+import com.commerce.repository.InventoryBucketRepository;
+import com.commerce.repository.InventoryRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Manages split-counter (escrow) products: splitting a product's stock into buckets,
+ * merging it back, rebalancing buckets and keeping the inventory rollup row current.
+ *
+ * <p>The inventory row's {@code split} flag is the authority: it is set in the same transaction that
+ * creates the buckets, and every row strategy refuses flagged rows, so a write from an instance that has
+ * not yet seen the split cannot land on the row and be overwritten by the next fold. The in-memory set
+ * below only routes; callers that are refused use {@link #refresh(UUID)} to pick up the change at once.
+ */
+@Service
+@Transactional
+public class SplitCounterService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SplitCounterService.class);
+
+    private final InventoryRepository inventoryRepository;
+    private final InventoryBucketRepository bucketRepository;
+    private final Map<UUID, SplitProduct> splitProducts = new ConcurrentHashMap<>();
+
+    public SplitCounterService(InventoryRepository inventoryRepository,
+                               InventoryBucketRepository bucketRepository) {
+        this.inventoryRepository = inventoryRepository;
+        this.bucketRepository = bucketRepository;
+    }
+
+    /**
+     * Bucket count and SKU of a split product.
+     */
+    record SplitProduct(int buckets, String sku) {}
+
+    @PostConstruct
+    void loadSplitProducts() {
+        refreshSplitProducts();
+        logger.info("Loaded {} split-counter products", splitProducts.size());
+    }
+
+    /**
+     * Whether the product's stock is currently held in buckets.
+     */
+    public boolean isSplit(UUID productId) {
+        return splitProducts.containsKey(productId);
+    }
+
+    /**
+     * IDs of every split product.
+     */
+    public Set<UUID> splitProductIds() {
+        return Set.copyOf(splitProducts.keySet());
+    }
+
+    /**
+     * Number of buckets for a product, or 0 when it is not split.
+     */
+    public int bucketCount(UUID productId) {
+        SplitProduct split = splitProducts.get(productId);
+        return split != null ? split.buckets() : 0;
+    }
+
+    /**
+     * Partition a product's stock into the given number of buckets (re-splitting if already split).
+     */
+    public boolean split(UUID productId, int buckets) {
+        logger.info("Splitting inventory for product: {} into {} buckets", productId, buckets);
+
+        Optional<Inventory> inventoryOpt = inventoryRepository.findByProductIdWithLock(productId);
+        if (inventoryOpt.isEmpty()) {
+            logger.warn("Product not found: {}", productId);
+            return false;
+        }
+
+        Inventory inventory = inventoryOpt.get();
+        List<InventoryBucket> existing = bucketRepository.findByProductIdForUpdate(productId);
+        int quantity = existing.isEmpty() ? inventory.getQuantity() : sumQuantity(existing);
+        int reserved = existing.isEmpty() ? inventory.getReservedQuantity() : sumReserved(existing);
+
+        bucketRepository.deleteByProductId(productId);
+        bucketRepository.flush();
+
+        int[] reservedShares = distribute(reserved, buckets);
+        int[] availableShares = distribute(quantity - reserved, buckets);
+        List<InventoryBucket> created = new ArrayList<>(buckets);
+        for (int b = 0; b < buckets; b++) {
+            created.add(new InventoryBucket(productId, b, reservedShares[b] + availableShares[b], reservedShares[b]));
+        }
+        bucketRepository.saveAll(created);
+
+        inventory.setQuantity(quantity);
+        inventory.setReservedQuantity(reserved);
+        inventory.setSplit(true);
+        inventoryRepository.save(inventory);
+
+        SplitProduct split = new SplitProduct(buckets, inventory.getProduct().getSku());
+        afterCommit(() -> splitProducts.put(productId, split));
+        return true;
+    }
+
+    /**
+     * Fold a product's buckets back into its single inventory row.
+     */
+    public boolean merge(UUID productId) {
+        logger.info("Merging inventory buckets for product: {}", productId);
+
+        Optional<Inventory> inventoryOpt = inventoryRepository.findByProductIdWithLock(productId);
+        List<InventoryBucket> buckets = bucketRepository.findByProductIdForUpdate(productId);
+        if (inventoryOpt.isEmpty() || buckets.isEmpty()) {
+            logger.warn("Product not split: {}", productId);
+            return false;
+        }
+
+        Inventory inventory = inventoryOpt.get();
+        inventory.setQuantity(sumQuantity(buckets));
+        inventory.setReservedQuantity(sumReserved(buckets));
+        inventory.setSplit(false);
+        inventoryRepository.save(inventory);
+        bucketRepository.deleteByProductId(productId);
+
+        afterCommit(() -> splitProducts.remove(productId));
+        return true;
+    }
+
+    /**
+     * Re-read one product's split state, for a caller whose strategy was refused because another
+     * instance split or merged the product since the last refresh.
+     *
+     * @return whether the product's split state changed
+     */
+    public boolean refresh(UUID productId) {
+        long buckets = bucketRepository.countByProductId(productId);
+        if (buckets == 0) {
+            if (splitProducts.remove(productId) == null) {
+                return false;
+            }
+            logger.info("Product {} was merged on another instance, routing to its inventory row", productId);
+            return true;
+        }
+        SplitProduct current = splitProducts.get(productId);
+        if (current != null && current.buckets() == buckets) {
+            return false;
+        }
+        String sku = inventoryRepository.findByProductIdWithProduct(productId)
+                .map(inventory -> inventory.getProduct().getSku())
+                .orElse(null);
+        splitProducts.put(productId, new SplitProduct((int) buckets, sku));
+        logger.info("Product {} was split on another instance, routing to its {} buckets", productId, buckets);
+        return true;
+    }
+
+    /**
+     * Spread the available stock of locked buckets evenly, leaving reservations where they are.
+     */
+    public void rebalance(List<InventoryBucket> lockedBuckets) {
+        int available = 0;
+        for (InventoryBucket bucket : lockedBuckets) {
+            available += bucket.getAvailableQuantity();
+        }
+
+        int[] shares = distribute(available, lockedBuckets.size());
+        for (int b = 0; b < lockedBuckets.size(); b++) {
+            InventoryBucket bucket = lockedBuckets.get(b);
+            bucket.setQuantity(bucket.getReservedQuantity() + shares[b]);
+        }
+        bucketRepository.saveAllAndFlush(lockedBuckets);
+    }
+
+    /**
+     * Aggregated counters of a split product from its buckets.
+     */
+    public Optional<StockLevel> level(UUID productId) {
+        SplitProduct split = splitProducts.get(productId);
+        List<Object[]> sums = bucketRepository.sumByProductId(productId);
+        if (split == null || sums.isEmpty() || sums.get(0)[0] == null) {
+            return Optional.empty();
+        }
+        Object[] row = sums.get(0);
+        return Optional.of(new StockLevel(productId, split.sku(),
+                ((Number) row[0]).intValue(), ((Number) row[1]).intValue(),
+                StockLevel.version(((Number) row[2]).longValue(), ((Number) row[3]).longValue())));
+    }
+
+    /**
+     * Refresh the inventory rollup rows of split products so aggregate queries
+     * (low stock, valuation, category listings) see bucket activity.
+     */
+    @Scheduled(fixedDelayString = "${commerce.inventory.split.fold-interval-ms:5000}")
+    public void foldBuckets() {
+        int folded = bucketRepository.foldIntoInventory();
+        refreshSplitProducts();
+        if (folded > 0) {
+            logger.debug("Folded buckets into {} inventory rows", folded);
+        }
+    }
+
+    private void refreshSplitProducts() {
+        Map<UUID, Integer> counts = new ConcurrentHashMap<>();
+        for (Object[] row : bucketRepository.countBucketsByProduct()) {
+            counts.put((UUID) row[0], ((Number) row[1]).intValue());
+        }
+
+        splitProducts.keySet().retainAll(counts.keySet());
+        counts.forEach((productId, buckets) -> {
+            SplitProduct current = splitProducts.get(productId);
+            if (current == null || current.buckets() != buckets) {
+                String sku = inventoryRepository.findByProductIdWithProduct(productId)
+                        .map(inventory -> inventory.getProduct().getSku())
+                        .orElse(null);
+                splitProducts.put(productId, new SplitProduct(buckets, sku));
+            }
+        });
+    }
+
+    /**
+     * Split a total into near-equal integer parts that sum to the total.
+     */
+    static int[] distribute(int total, int parts) {
+        int[] shares = new int[parts];
+        int base = Math.floorDiv(total, parts);
+        int remainder = Math.floorMod(total, parts);
+        for (int i = 0; i < parts; i++) {
+            shares[i] = base + (i < remainder ? 1 : 0);
+        }
+        return shares;
+    }
+
+    private static int sumQuantity(List<InventoryBucket> buckets) {
+        return buckets.stream().mapToInt(InventoryBucket::getQuantity).sum();
+    }
+
+    private static int sumReserved(List<InventoryBucket> buckets) {
+        return buckets.stream().mapToInt(InventoryBucket::getReservedQuantity).sum();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
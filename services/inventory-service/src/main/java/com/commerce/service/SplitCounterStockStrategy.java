@@ -0,0 +1,169 @@
+package com.commerce.service;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.commerce.model.InventoryBucket;
+import com.commerce.repository.InventoryBucketRepository;
+
+/**
+ * Escrow strategy for split products. Each operation first tries a guarded UPDATE on one or two
+ * buckets, so concurrent writers on the same SKU usually touch different rows. When the probed
+ * buckets cannot satisfy the request, all buckets are locked, the change is spread across them
+ * and the remaining available stock is rebalanced.
+ */
+@Component
+public class SplitCounterStockStrategy implements StockConcurrencyStrategy {
+
+    private static final Logger logger = LoggerFactory.getLogger(SplitCounterStockStrategy.class);
+    private static final int PROBES = 2;
+
+    /**
+     * How a reservation picks its first bucket.
+     */
+    public enum BucketSelection {
+        RANDOM,
+        THREAD
+    }
+
+    private final InventoryBucketRepository bucketRepository;
+    private final SplitCounterService splitCounterService;
+    private final BucketSelection selection;
+
+    public SplitCounterStockStrategy(InventoryBucketRepository bucketRepository,
+                                     SplitCounterService splitCounterService,
+                                     @Value("${commerce.inventory.split.selection:RANDOM}") BucketSelection selection) {
+        this.bucketRepository = bucketRepository;
+        this.splitCounterService = splitCounterService;
+        this.selection = selection;
+    }
+
+    @Override
+    public ConcurrencyMode mode() {
+        return ConcurrencyMode.SPLIT;
+    }
+
+    @Override
+    public Optional<StockLevel> liveLevel(UUID productId) {
+        return splitCounterService.level(productId);
+    }
+
+    @Override
+    public Optional<StockLevel> reserve(UUID productId, int quantity, UUID orderId) {
+        int buckets = splitCounterService.bucketCount(productId);
+        int start = firstBucket(buckets);
+        for (int i = 0; i < Math.min(buckets, PROBES); i++) {
+            if (bucketRepository.reserveInBucket(productId, (start + i) % buckets, quantity) == 1) {
+                return splitCounterService.level(productId);
+            }
+        }
+
+        return underLock(productId, locked -> {
+            if (available(locked) < quantity) {
+                return false;
+            }
+            int remaining = quantity;
+            for (InventoryBucket bucket : locked) {
+                int take = Math.min(bucket.getAvailableQuantity(), remaining);
+                bucket.setReservedQuantity(bucket.getReservedQuantity() + take);
+                remaining -= take;
+            }
+            return true;
+        });
+    }
+
+    @Override
+    public Optional<StockLevel> release(UUID productId, int quantity, UUID orderId) {
+        int buckets = splitCounterService.bucketCount(productId);
+        int start = firstBucket(buckets);
+        for (int i = 0; i < Math.min(buckets, PROBES); i++) {
+            if (bucketRepository.releaseInBucket(productId, (start + i) % buckets, quantity) == 1) {
+                return splitCounterService.level(productId);
+            }
+        }
+
+        return underLock(productId, locked -> takeReserved(locked, quantity, false));
+    }
+
+    @Override
+    public Optional<StockLevel> confirm(UUID productId, int quantity, UUID orderId) {
+        int buckets = splitCounterService.bucketCount(productId);
+        int start = firstBucket(buckets);
+        for (int i = 0; i < Math.min(buckets, PROBES); i++) {
+            if (bucketRepository.confirmInBucket(productId, (start + i) % buckets, quantity) == 1) {
+                return splitCounterService.level(productId);
+            }
+        }
+
+        return underLock(productId, locked -> takeReserved(locked, quantity, true));
+    }
+
+    @Override
+    public Optional<StockLevel> setQuantity(UUID productId, int quantity) {
+        return underLock(productId, locked -> {
+            // Below the reserved total some bucket would hold less than it has promised
+            if (quantity < locked.stream().mapToInt(InventoryBucket::getReservedQuantity).sum()) {
+                return false;
+            }
+            int delta = quantity - locked.stream().mapToInt(InventoryBucket::getQuantity).sum();
+            InventoryBucket first = locked.get(0);
+            // May leave the first bucket short of its reservations; the rebalance below evens it out
+            first.setQuantity(first.getQuantity() + delta);
+            return true;
+        });
+    }
+
+    /**
+     * Lock every bucket of the product, apply the mutation across them and rebalance.
+     */
+    private Optional<StockLevel> underLock(UUID productId, Predicate<List<InventoryBucket>> mutation) {
+        List<InventoryBucket> locked = bucketRepository.findByProductIdForUpdate(productId);
+        if (locked.isEmpty() || !mutation.test(locked)) {
+            return Optional.empty();
+        }
+
+        splitCounterService.rebalance(locked);
+        logger.debug("Rebalanced {} buckets for product: {}", locked.size(), productId);
+        return splitCounterService.level(productId);
+    }
+
+    /**
+     * Remove reserved stock across buckets, optionally reducing on-hand quantity too (confirm).
+     */
+    private static boolean takeReserved(List<InventoryBucket> locked, int quantity, boolean reduceQuantity) {
+        if (locked.stream().mapToInt(InventoryBucket::getReservedQuantity).sum() < quantity) {
+            return false;
+        }
+        int remaining = quantity;
+        for (InventoryBucket bucket : locked) {
+            int take = Math.min(bucket.getReservedQuantity(), remaining);
+            bucket.setReservedQuantity(bucket.getReservedQuantity() - take);
+            if (reduceQuantity) {
+                bucket.setQuantity(bucket.getQuantity() - take);
+            }
+            remaining -= take;
+        }
+        return true;
+    }
+
+    private static int available(List<InventoryBucket> buckets) {
+        return buckets.stream().mapToInt(InventoryBucket::getAvailableQuantity).sum();
+    }
+
+    private int firstBucket(int buckets) {
+        if (buckets <= 1) {
+            return 0;
+        }
+        return selection == BucketSelection.THREAD
+                ? (int) (Thread.currentThread().threadId() % buckets)
+                : ThreadLocalRandom.current().nextInt(buckets);
+    }
+}
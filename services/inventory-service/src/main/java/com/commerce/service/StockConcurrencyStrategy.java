@@ -0,0 +1,47 @@
+package com.commerce.service;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Applies stock mutations to a single product's inventory under a particular concurrency control scheme.
+ * Each operation returns the counters after the change, or empty when the product does not exist
+ * or the change would violate a stock invariant. Implementations run inside the caller's transaction.
+ * The order ID of reservation changes is for strategies that keep their own record of them (the
+ * ledger journal); it may be null.
+ */
+public interface StockConcurrencyStrategy {
+
+    /**
+     * The mode this strategy implements.
+     */
+    ConcurrencyMode mode();
+
+    /**
+     * Move quantity from available to reserved.
+     */
+    Optional<StockLevel> reserve(UUID productId, int quantity, UUID orderId);
+
+    /**
+     * Return reserved quantity to available.
+     */
+    Optional<StockLevel> release(UUID productId, int quantity, UUID orderId);
+
+    /**
+     * Convert reserved quantity to sold (reduces both total and reserved).
+     */
+    Optional<StockLevel> confirm(UUID productId, int quantity, UUID orderId);
+
+    /**
+     * Overwrite the total on-hand quantity.
+     */
+    Optional<StockLevel> setQuantity(UUID productId, int quantity);
+
+    /**
+     * Counters to report when they live somewhere other than the inventory row
+     * (buckets, in-memory ledger). Empty means the row itself is current.
+     */
+    default Optional<StockLevel> liveLevel(UUID productId) {
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,70 @@
+package com.commerce.service;
+
+import java.util.UUID;
+
+import com.commerce.model.Inventory;
+
+/**
+ * Stock counters of a product as they stand after a mutation.
+ *
+ * <p>{@code version} orders levels of the same product, so listeners that receive after-commit
+ * events out of order can drop stale ones. It is the inventory row version in the high 32 bits
+ * plus, for split products, the sum of the bucket versions: every mutation, fold, split and merge
+ * raises one of the two, and both are read in the same statement as the counters. Levels that
+ * cannot be ordered this way (the reservation ledger's in-memory counters) are {@link #UNVERSIONED}.
+ */
+public record StockLevel(UUID productId, String sku, int quantity, int reservedQuantity, long version) {
+
+    /**
+     * Version of levels that carry no ordering; they always apply.
+     */
+    public static final long UNVERSIONED = -1;
+
+    public StockLevel(UUID productId, String sku, int quantity, int reservedQuantity) {
+        this(productId, sku, quantity, reservedQuantity, UNVERSIONED);
+    }
+
+    public int availableQuantity() {
+        return quantity - reservedQuantity;
+    }
+
+    /**
+     * Ordering key from an inventory row version and the sum of its bucket versions (0 when not split).
+     */
+    public static long version(long rowVersion, long bucketVersions) {
+        return (rowVersion << 32) + bucketVersions;
+    }
+
+    /**
+     * Whether a level at {@code version} may replace state recorded at {@code current}.
+     */
+    public static boolean isNotOlder(long version, long current) {
+        return version == UNVERSIONED || version >= current;
+    }
+
+    /**
+     * Create from a loaded Inventory entity whose changes have been flushed.
+     */
+    public static StockLevel fromInventory(Inventory inventory) {
+        return new StockLevel(
+            inventory.getProductId(),
+            inventory.getProduct() != null ? inventory.getProduct().getSku() : null,
+            inventory.getQuantity(),
+            inventory.getReservedQuantity(),
+            version(inventory.getVersion(), 0)
+        );
+    }
+
+    /**
+     * Create from a {@code RETURNING product_id, quantity, reserved_quantity, sku, version} row.
+     */
+    public static StockLevel fromRow(Object[] row) {
+        return new StockLevel(
+            (UUID) row[0],
+            (String) row[3],
+            ((Number) row[1]).intValue(),
+            ((Number) row[2]).intValue(),
+            version(((Number) row[4]).longValue(), 0)
+        );
+    }
+}
@@ -0,0 +1,236 @@
+package com.commerce.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import com.commerce.config.CacheConfig;
+import com.commerce.config.ReplicaRoutingDataSource;
+import com.commerce.repository.InventoryRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Caches each product's available quantity under {@code stock-level::<productId>}, so any
+ * "is N available" question is answered from one entry per product and a stock change evicts
+ * exactly one key (see {@link InventoryCacheInvalidator}). Values are plain decimal strings.
+ *
+ * <p>Unknown products are not cached; IDs the {@link KnownProductFilter} rejects are answered without a
+ * cache or database lookup. Reservations confirm such IDs against the database, so a product the filter
+ * has not synced yet may read as unavailable but is never refused an order. Hits and misses are counted as {@code cache.gets} with the
+ * same tags Spring's cache metrics use, so the hit ratio can be compared with the other caches.
+ *
+ * <p>A value loaded before a stock change commits must not be written back after the change evicted
+ * the key. Every eviction first advances a per-product generation counter; a miss reads the generation
+ * with the entry and writes back only if it is unchanged, and only if no newer entry was written meanwhile.
+ */
+@Component
+public class StockLevelCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockLevelCache.class);
+    // RedisCacheConfiguration's default key prefix is "<cacheName>::"
+    private static final String KEY_PREFIX = CacheConfig.STOCK_LEVEL_CACHE + "::";
+    private static final String GENERATION_PREFIX = CacheConfig.STOCK_LEVEL_CACHE + "-generation::";
+    // KEYS: entry, generation; ARGV: value, TTL in ms, generation seen by the read ('' when absent)
+    private static final byte[] WRITE_BACK_SCRIPT = (
+        "if (redis.call('GET', KEYS[2]) or '') == ARGV[3] then " +
+        "  return redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2], 'NX') " +
+        "end " +
+        "return false").getBytes(StandardCharsets.UTF_8);
+
+    private final InventoryRepository inventoryRepository;
+    private final StockStrategySelector strategySelector;
+    private final StringRedisTemplate redisTemplate;
+    private final KnownProductFilter knownProducts;
+    private final Duration timeToLive;
+    private final Counter hits;
+    private final Counter misses;
+
+    public StockLevelCache(InventoryRepository inventoryRepository,
+                           StockStrategySelector strategySelector,
+                           StringRedisTemplate redisTemplate,
+                           KnownProductFilter knownProducts,
+                           MeterRegistry meterRegistry,
+                           @Value("${spring.cache.redis.time-to-live:300000}") long timeToLiveMs) {
+        this.inventoryRepository = inventoryRepository;
+        this.strategySelector = strategySelector;
+        this.redisTemplate = redisTemplate;
+        this.knownProducts = knownProducts;
+        this.timeToLive = Duration.ofMillis(timeToLiveMs);
+        this.hits = getsCounter(meterRegistry, "hit");
+        this.misses = getsCounter(meterRegistry, "miss");
+    }
+
+    /**
+     * Available quantity of one product, or empty when the product has no inventory.
+     */
+    public OptionalInt available(UUID productId) {
+        Integer available = available(List.of(productId)).get(productId);
+        return available != null ? OptionalInt.of(available) : OptionalInt.empty();
+    }
+
+    /**
+     * Available quantities of several products in one MGET, loading misses with one IN query
+     * and writing them back in one pipeline. Unknown products are absent from the result.
+     * Must be called inside a transaction so split and ledger counters are read consistently.
+     */
+    public Map<UUID, Integer> available(Collection<UUID> productIds) {
+        List<UUID> ids = new ArrayList<>(productIds.size());
+        for (UUID productId : productIds) {
+            if (knownProducts.mightContain(productId)) {
+                ids.add(productId);
+            }
+        }
+        if (ids.isEmpty()) {
+            return new HashMap<>();
+        }
+        // Entries and their generations in one MGET
+        List<String> keys = new ArrayList<>(ids.size() * 2);
+        for (UUID productId : ids) {
+            keys.add(keyFor(productId));
+        }
+        for (UUID productId : ids) {
+            keys.add(generationKeyFor(productId));
+        }
+
+        List<String> cached = multiGet(keys);
+        Map<UUID, Integer> available = new HashMap<>();
+        List<UUID> missed = new ArrayList<>();
+        Map<UUID, String> generations = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            String value = cached.get(i);
+            if (value != null) {
+                available.put(ids.get(i), Integer.valueOf(value));
+            } else {
+                missed.add(ids.get(i));
+                String generation = cached.get(ids.size() + i);
+                generations.put(ids.get(i), generation != null ? generation : "");
+            }
+        }
+        hits.increment(ids.size() - missed.size());
+        misses.increment(missed.size());
+
+        if (!missed.isEmpty()) {
+            Map<UUID, Integer> loaded = load(missed);
+            for (int i = loaded.size(); i < missed.size(); i++) {
+                knownProducts.recordMissingProduct();
+            }
+            available.putAll(loaded);
+            writeBack(loaded, generations);
+        }
+        return available;
+    }
+
+    /**
+     * Redis key of a product's entry.
+     */
+    static String keyFor(UUID productId) {
+        return KEY_PREFIX + productId;
+    }
+
+    /**
+     * Advance the generation of every stock-level entry among {@code keys}, so write-backs of values
+     * read before the change are dropped. Must run before the entries are deleted.
+     */
+    void advanceGenerations(Collection<String> keys) {
+        List<byte[]> generationKeys = new ArrayList<>();
+        for (String key : keys) {
+            if (key.startsWith(KEY_PREFIX)) {
+                generationKeys.add((GENERATION_PREFIX + key.substring(KEY_PREFIX.length())).getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        if (generationKeys.isEmpty()) {
+            return;
+        }
+        // Outlives any entry written back under the previous generation
+        long ttlMs = timeToLive.toMillis();
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (byte[] generationKey : generationKeys) {
+                connection.stringCommands().incr(generationKey);
+                connection.keyCommands().pExpire(generationKey, ttlMs);
+            }
+            return null;
+        });
+    }
+
+    private static String generationKeyFor(UUID productId) {
+        return GENERATION_PREFIX + productId;
+    }
+
+    private Map<UUID, Integer> load(List<UUID> productIds) {
+        // Loaded values are cached, so they must not come from a replica that has not seen the latest eviction's write
+        return ReplicaRoutingDataSource.onPrimary(() -> {
+            Map<UUID, Integer> available = new HashMap<>();
+            for (Object[] row : inventoryRepository.checkStockAvailability(productIds)) {
+                available.put((UUID) row[0], ((Number) row[1]).intValue());
+            }
+            // Split and ledger products keep live counters outside the row
+            for (UUID productId : productIds) {
+                strategySelector.strategyFor(productId).liveLevel(productId)
+                        .ifPresent(level -> available.put(productId, level.availableQuantity()));
+            }
+            return available;
+        });
+    }
+
+    private List<String> multiGet(List<String> keys) {
+        try {
+            List<String> values = redisTemplate.opsForValue().multiGet(keys);
+            if (values != null) {
+                return values;
+            }
+        } catch (Exception e) {
+            logger.warn("Stock level cache read failed, falling back to database: {}", e.getMessage());
+        }
+        List<String> none = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            none.add(null);
+        }
+        return none;
+    }
+
+    private void writeBack(Map<UUID, Integer> entries, Map<UUID, String> generations) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        try {
+            byte[] ttlMs = Long.toString(timeToLive.toMillis()).getBytes(StandardCharsets.UTF_8);
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                entries.forEach((productId, available) -> connection.scriptingCommands().eval(
+                    WRITE_BACK_SCRIPT, ReturnType.VALUE, 2,
+                    keyFor(productId).getBytes(StandardCharsets.UTF_8),
+                    generationKeyFor(productId).getBytes(StandardCharsets.UTF_8),
+                    available.toString().getBytes(StandardCharsets.UTF_8),
+                    ttlMs,
+                    generations.getOrDefault(productId, "").getBytes(StandardCharsets.UTF_8)));
+                return null;
+            });
+        } catch (Exception e) {
+            logger.warn("Stock level cache write-back failed: {}", e.getMessage());
+        }
+    }
+
+    private static Counter getsCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("cache.gets")
+                .description("The number of times cache lookup methods have returned a cached (hit) or uncached (miss) value")
+                .tag("cache", CacheConfig.STOCK_LEVEL_CACHE)
+                .tag("cache.manager", "cacheManager")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
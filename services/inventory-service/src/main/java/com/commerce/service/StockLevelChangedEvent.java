@@ -0,0 +1,7 @@
+package com.commerce.service;
+
+/**
+ * Application event carrying a product's counters after a stock mutation.
+ * Counters are absolute, so listeners can apply events more than once without drifting.
+ */
+public record StockLevelChangedEvent(StockLevel level) {}
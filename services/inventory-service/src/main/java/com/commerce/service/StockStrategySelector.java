@@ -0,0 +1,230 @@
+package com.commerce.service;
+
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.commerce.config.ConcurrencyProperties;
+import com.commerce.event.ProductChangedEvent;
+import com.commerce.model.Product;
+import com.commerce.repository.ProductRepository;
+
+/**
+ * Chooses the concurrency strategy for each product and tracks optimistic-lock
+ * conflict rates so hot products can be moved to a contention-friendly mode automatically.
+ */
+@Component
+public class StockStrategySelector {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockStrategySelector.class);
+
+    private final ConcurrencyProperties properties;
+    private final ProductRepository productRepository;
+    private final SplitCounterService splitCounterService;
+    private final Map<ConcurrencyMode, StockConcurrencyStrategy> strategies = new EnumMap<>(ConcurrencyMode.class);
+    private final Cache<UUID, String> categoryByProduct;
+    private final Map<UUID, ConflictWindow> conflictWindows = new ConcurrentHashMap<>();
+
+    public StockStrategySelector(ConcurrencyProperties properties,
+                                 ProductRepository productRepository,
+                                 SplitCounterService splitCounterService,
+                                 List<StockConcurrencyStrategy> strategies) {
+        this.properties = properties;
+        this.productRepository = productRepository;
+        this.splitCounterService = splitCounterService;
+        this.categoryByProduct = Caffeine.newBuilder()
+                .maximumSize(properties.getCategoryCacheSize())
+                .expireAfterWrite(properties.getCategoryCacheTtl())
+                .build();
+        for (StockConcurrencyStrategy strategy : strategies) {
+            this.strategies.put(strategy.mode(), strategy);
+        }
+    }
+
+    /**
+     * Strategy to use for the next mutation of a product.
+     */
+    public StockConcurrencyStrategy strategyFor(UUID productId) {
+        StockConcurrencyStrategy strategy = strategies.get(modeFor(productId));
+        if (strategy == null) {
+            // e.g. LEDGER configured while the ledger is disabled
+            logger.warn("No strategy available for product: {}, using {}", productId, properties.getMode());
+            return strategies.get(properties.getMode());
+        }
+        return strategy;
+    }
+
+    /**
+     * Resolve the effective mode for a product.
+     */
+    public ConcurrencyMode modeFor(UUID productId) {
+        // Split products keep their counters in buckets, so no other strategy may touch the row
+        if (splitCounterService.isSplit(productId)) {
+            return ConcurrencyMode.SPLIT;
+        }
+
+        ConflictWindow window = conflictWindows.get(productId);
+        if (window != null && window.isEscalated(System.currentTimeMillis())) {
+            return properties.getAutoSwitch().getTargetMode();
+        }
+
+        ConcurrencyMode productMode = properties.getProducts().get(productId);
+        if (productMode != null) {
+            return productMode;
+        }
+
+        if (!properties.getCategories().isEmpty()) {
+            ConcurrencyMode categoryMode = properties.getCategories().get(categoryOf(productId));
+            if (categoryMode != null) {
+                return categoryMode;
+            }
+        }
+
+        return properties.getMode();
+    }
+
+    /**
+     * Products whose counters live outside the inventory row (split buckets or the ledger),
+     * so set-based row updates must leave them to their strategy.
+     * Products that only inherit such a mode from {@link #categoriesOutsideInventoryRow()} are not included.
+     */
+    public Set<UUID> productsOutsideInventoryRow() {
+        Set<UUID> candidates = new HashSet<>(splitCounterService.splitProductIds());
+        candidates.addAll(properties.getProducts().keySet());
+        long now = System.currentTimeMillis();
+        conflictWindows.forEach((productId, window) -> {
+            if (window.isEscalated(now)) {
+                candidates.add(productId);
+            }
+        });
+
+        Set<UUID> productIds = new HashSet<>();
+        for (UUID productId : candidates) {
+            if (!strategyFor(productId).mode().usesInventoryRow()) {
+                productIds.add(productId);
+            }
+        }
+        return productIds;
+    }
+
+    /**
+     * Categories configured with a mode that keeps counters outside the inventory row.
+     */
+    public Set<String> categoriesOutsideInventoryRow() {
+        Set<String> categories = new HashSet<>();
+        properties.getCategories().forEach((category, mode) -> {
+            if (!mode.usesInventoryRow() && strategies.containsKey(mode)) {
+                categories.add(category);
+            }
+        });
+        return categories;
+    }
+
+    /**
+     * Record the outcome of an optimistic attempt for conflict-rate tracking.
+     */
+    public void recordAttempt(UUID productId, boolean conflict) {
+        ConcurrencyProperties.AutoSwitch autoSwitch = properties.getAutoSwitch();
+        if (!autoSwitch.isEnabled()) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        // Products only get counters once they conflict, so the map holds contended products, not the catalog
+        ConflictWindow window = conflict
+                ? conflictWindows.computeIfAbsent(productId, id -> new ConflictWindow(now))
+                : conflictWindows.get(productId);
+        if (window == null) {
+            return;
+        }
+        if (window.record(conflict, now, autoSwitch)) {
+            logger.warn("Conflict rate for product: {} exceeded {}, switching to {} for {}",
+                       productId, autoSwitch.getConflictThreshold(), autoSwitch.getTargetMode(), autoSwitch.getCooldown());
+        }
+    }
+
+    /**
+     * Drop counters of products that are neither escalated nor inside a live sampling window.
+     */
+    @Scheduled(fixedDelayString = "${commerce.inventory.concurrency.auto-switch.sweep-interval-ms:60000}")
+    public void sweepConflictWindows() {
+        long now = System.currentTimeMillis();
+        long windowMillis = properties.getAutoSwitch().getWindow().toMillis();
+        conflictWindows.values().removeIf(window -> window.isIdle(now, windowMillis));
+    }
+
+    /**
+     * Drop the cached category of a changed product; other instances pick it up when the entry expires.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        categoryByProduct.invalidate(event.productId());
+    }
+
+    private String categoryOf(UUID productId) {
+        return categoryByProduct.get(productId, id -> productRepository.findById(id)
+                .map(Product::getCategory)
+                .orElse(""));
+    }
+
+    /**
+     * Conflict counters for one product over a fixed sampling window.
+     */
+    private static final class ConflictWindow {
+
+        private final AtomicInteger attempts = new AtomicInteger();
+        private final AtomicInteger conflicts = new AtomicInteger();
+        private volatile long windowStart;
+        private volatile long escalatedUntil;
+
+        ConflictWindow(long now) {
+            this.windowStart = now;
+        }
+
+        boolean isEscalated(long now) {
+            return escalatedUntil > now;
+        }
+
+        boolean isIdle(long now, long windowMillis) {
+            return !isEscalated(now) && now - windowStart > windowMillis;
+        }
+
+        /**
+         * @return true when this sample escalated the product
+         */
+        boolean record(boolean conflict, long now, ConcurrencyProperties.AutoSwitch autoSwitch) {
+            if (now - windowStart > autoSwitch.getWindow().toMillis()) {
+                synchronized (this) {
+                    if (now - windowStart > autoSwitch.getWindow().toMillis()) {
+                        attempts.set(0);
+                        conflicts.set(0);
+                        windowStart = now;
+                    }
+                }
+            }
+
+            int total = attempts.incrementAndGet();
+            int conflicted = conflict ? conflicts.incrementAndGet() : conflicts.get();
+
+            if (!isEscalated(now) && total >= autoSwitch.getMinSamples()
+                    && (double) conflicted / total >= autoSwitch.getConflictThreshold()) {
+                escalatedUntil = now + autoSwitch.getCooldown().toMillis();
+                return true;
+            }
+            return false;
+        }
+    }
+}
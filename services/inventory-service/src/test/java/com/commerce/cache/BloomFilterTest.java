@@ -0,0 +1,65 @@
+package com.commerce.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BloomFilterTest {
+
+    private static final int KEYS = 100_000;
+
+    @Test
+    void neverRejectsAnAddedKey() {
+        BloomFilter filter = BloomFilter.create(KEYS, 0.01);
+        UUID[] ids = new UUID[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            ids[i] = UUID.randomUUID();
+            filter.put(ids[i]);
+            filter.put("SKU-" + i);
+        }
+
+        for (int i = 0; i < KEYS; i++) {
+            assertTrue(filter.mightContain(ids[i]));
+            assertTrue(filter.mightContain("SKU-" + i));
+        }
+        assertEquals(2L * KEYS, filter.getInsertions());
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTheConfiguredRate() {
+        BloomFilter filter = BloomFilter.create(KEYS, 0.01);
+        for (int i = 0; i < KEYS; i++) {
+            filter.put(UUID.randomUUID());
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < KEYS; i++) {
+            if (filter.mightContain(UUID.randomUUID())) {
+                falsePositives++;
+            }
+        }
+        double rate = (double) falsePositives / KEYS;
+        assertTrue(rate < 0.02, "false-positive rate " + rate);
+        assertTrue(filter.expectedFalsePositiveRate() < 0.02, "expected rate " + filter.expectedFalsePositiveRate());
+    }
+
+    @Test
+    void emptyFilterContainsNothing() {
+        BloomFilter filter = BloomFilter.create(KEYS, 0.01);
+
+        assertFalse(filter.mightContain(UUID.randomUUID()));
+        assertFalse(filter.mightContain("SKU-1"));
+        assertEquals(0, filter.getInsertions());
+    }
+
+    @Test
+    void rejectsInvalidFalsePositiveRates() {
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(KEYS, 0));
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(KEYS, 1));
+    }
+}
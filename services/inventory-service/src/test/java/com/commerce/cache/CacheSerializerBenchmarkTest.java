@@ -0,0 +1,122 @@
+package com.commerce.cache;
+
+import com.commerce.config.CacheConfig;
+import com.commerce.dto.InventoryResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * JMH comparison of the JSON cache serializer with the binary one (Smile, LZ4 above 1 KiB), on a single
+ * {@code inventory} entry and on the {@code products} listing (1000 products by default), plus the
+ * bytes each writes. Run with {@code mvn test -Dbenchmark=true -Dtest=CacheSerializerBenchmarkTest}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheSerializerBenchmarkTest {
+
+    private static final int PRODUCTS = Integer.getInteger("benchmark.products", 1_000);
+
+    @Param({"single", "listing"})
+    public String entry;
+
+    private Object value;
+    private GenericJackson2JsonRedisSerializer json;
+    private CacheValueSerializer binary;
+    private byte[] jsonBytes;
+    private byte[] binaryBytes;
+
+    @Setup
+    public void setUp() {
+        value = entry.equals("single") ? response(0) : listing();
+        json = CacheConfig.jsonSerializer();
+        binary = new CacheValueSerializer("bench", CacheConfig.smileMapper(), json, true, 1024,
+                new SimpleMeterRegistry());
+        jsonBytes = json.serialize(value);
+        binaryBytes = binary.serialize(value);
+    }
+
+    @Benchmark
+    public byte[] serializeJson() {
+        return json.serialize(value);
+    }
+
+    @Benchmark
+    public byte[] serializeBinary() {
+        return binary.serialize(value);
+    }
+
+    @Benchmark
+    public Object deserializeJson() {
+        return json.deserialize(jsonBytes);
+    }
+
+    @Benchmark
+    public Object deserializeBinary() {
+        return binary.deserialize(binaryBytes);
+    }
+
+    @Test
+    public void compareSerializers() throws Exception {
+        System.out.printf("%-10s %12s %12s %8s%n", "entry", "JSON bytes", "binary bytes", "ratio");
+        for (String name : List.of("single", "listing")) {
+            entry = name;
+            setUp();
+            System.out.printf("%-10s %12d %12d %7.1fx%n", name, jsonBytes.length, binaryBytes.length,
+                    (double) jsonBytes.length / binaryBytes.length);
+
+            // Round trips, including the JSON entries a cache reads after switching to binary
+            RedisSerializer<Object> reader = binary;
+            assertEquals(json.deserialize(jsonBytes).getClass(), reader.deserialize(binaryBytes).getClass());
+            assertEquals(json.deserialize(jsonBytes).getClass(), reader.deserialize(jsonBytes).getClass());
+        }
+
+        new Runner(new OptionsBuilder()
+                .include(CacheSerializerBenchmarkTest.class.getSimpleName())
+                .build()).run();
+    }
+
+    private static TimedValue listing() {
+        // The products listing is stored by RefreshingCache with its load time
+        List<InventoryResponse> products = new ArrayList<>(PRODUCTS);
+        for (int i = 0; i < PRODUCTS; i++) {
+            products.add(response(i));
+        }
+        return new TimedValue(products, System.currentTimeMillis());
+    }
+
+    private static InventoryResponse response(int i) {
+        int quantity = 100 + i % 400;
+        int reserved = i % 25;
+        return new InventoryResponse(UUID.randomUUID(), "SKU-" + i, "Wireless keyboard " + i,
+                quantity, reserved, quantity - reserved, LocalDateTime.now());
+    }
+}
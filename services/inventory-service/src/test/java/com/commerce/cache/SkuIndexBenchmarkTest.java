@@ -0,0 +1,102 @@
+package com.commerce.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Measures the heap taken by the SKU index against the two {@code HashMap}s it replaces,
+ * on a synthetic catalog (1M products by default), and the lookup rate of each.
+ * Run with {@code mvn test -Dbenchmark=true -Dtest=SkuIndexBenchmarkTest}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class SkuIndexBenchmarkTest {
+
+    private static final int PRODUCTS = Integer.getInteger("benchmark.products", 1_000_000);
+    private static final int LOOKUPS = 2_000_000;
+
+    @Test
+    public void compareWithHashMaps() {
+        UUID[] ids = new UUID[PRODUCTS];
+        String[] skus = new String[PRODUCTS];
+        for (int i = 0; i < PRODUCTS; i++) {
+            ids[i] = UUID.randomUUID();
+            skus[i] = "SKU-" + i;
+        }
+
+        long before = usedHeap();
+        SkuIndex index = new SkuIndex(PRODUCTS);
+        for (int i = 0; i < PRODUCTS; i++) {
+            index.put(ids[i], skus[i]);
+        }
+        long indexHeap = usedHeap() - before;
+
+        // Copies, so the maps are charged for their keys and values as they would be when loaded from the database
+        before = usedHeap();
+        Map<String, UUID> bySku = new HashMap<>();
+        Map<UUID, String> byId = new HashMap<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            UUID id = new UUID(ids[i].getMostSignificantBits(), ids[i].getLeastSignificantBits());
+            String sku = new String(skus[i]);
+            bySku.put(sku, id);
+            byId.put(id, sku);
+        }
+        long mapHeap = usedHeap() - before;
+
+        double perMillion = 1_000_000.0 / PRODUCTS / (1024 * 1024);
+        System.out.printf("%-12s %14s %14s %12s%n", "", "heap bytes", "MB per 1M SKUs", "bytes/SKU");
+        System.out.printf("%-12s %14d %14.1f %12d   (self-reported %d bytes)%n", "SkuIndex",
+                indexHeap, indexHeap * perMillion, indexHeap / PRODUCTS, index.memoryBytes());
+        System.out.printf("%-12s %14d %14.1f %12d%n", "HashMaps", mapHeap, mapHeap * perMillion, mapHeap / PRODUCTS);
+
+        // Warm once, then time the steady state
+        lookups(index, skus);
+        long start = System.nanoTime();
+        int found = lookups(index, skus);
+        double indexMs = (System.nanoTime() - start) / 1e6;
+
+        lookups(bySku, skus);
+        start = System.nanoTime();
+        lookups(bySku, skus);
+        double mapMs = (System.nanoTime() - start) / 1e6;
+
+        System.out.printf("%d SKU lookups: SkuIndex %.1f ms, HashMap %.1f ms%n", LOOKUPS, indexMs, mapMs);
+
+        assertEquals(LOOKUPS, found);
+        assertEquals(skus[PRODUCTS / 2], index.skuOf(ids[PRODUCTS / 2]));
+        assertEquals(PRODUCTS, byId.size());
+    }
+
+    private static int lookups(SkuIndex index, String[] skus) {
+        int found = 0;
+        for (int i = 0; i < LOOKUPS; i++) {
+            if (index.productIdOf(skus[(int) ((i * 2_654_435_761L) % skus.length)]) != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    private static int lookups(Map<String, UUID> bySku, String[] skus) {
+        int found = 0;
+        for (int i = 0; i < LOOKUPS; i++) {
+            if (bySku.get(skus[(int) ((i * 2_654_435_761L) % skus.length)]) != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
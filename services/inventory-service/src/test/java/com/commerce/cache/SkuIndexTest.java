@@ -0,0 +1,129 @@
+package com.commerce.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class SkuIndexTest {
+
+    @Test
+    void looksUpBothDirections() {
+        SkuIndex index = new SkuIndex(4);
+        UUID id = UUID.randomUUID();
+        index.put(id, "SKU-1");
+
+        assertEquals(id, index.productIdOf("SKU-1"));
+        assertEquals("SKU-1", index.skuOf(id));
+        assertEquals(1, index.size());
+        assertNull(index.productIdOf("SKU-2"));
+        assertNull(index.skuOf(UUID.randomUUID()));
+    }
+
+    @Test
+    void renamingReplacesThePreviousSku() {
+        SkuIndex index = new SkuIndex(4);
+        UUID id = UUID.randomUUID();
+        index.put(id, "SKU-1");
+        index.put(id, "SKU-2");
+
+        assertNull(index.productIdOf("SKU-1"));
+        assertEquals(id, index.productIdOf("SKU-2"));
+        assertEquals("SKU-2", index.skuOf(id));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void takingASkuRemovesItFromItsPreviousProduct() {
+        SkuIndex index = new SkuIndex(4);
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        index.put(first, "SKU-1");
+        index.put(second, "SKU-1");
+
+        assertEquals(second, index.productIdOf("SKU-1"));
+        assertNull(index.skuOf(first));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void removedEntriesAreNotFoundAndCanBeReadded() {
+        SkuIndex index = new SkuIndex(4);
+        UUID id = UUID.randomUUID();
+        index.put(id, "SKU-1");
+        index.remove(id);
+
+        assertNull(index.productIdOf("SKU-1"));
+        assertNull(index.skuOf(id));
+        assertEquals(0, index.size());
+
+        index.put(id, "SKU-1");
+        assertEquals(id, index.productIdOf("SKU-1"));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void growsPastItsExpectedSize() {
+        SkuIndex index = new SkuIndex(16);
+        UUID[] ids = new UUID[10_000];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = UUID.randomUUID();
+            // Multi-byte SKUs exercise the byte arena
+            index.put(ids[i], "SKU-\u00e9-" + i);
+        }
+
+        assertEquals(ids.length, index.size());
+        for (int i = 0; i < ids.length; i++) {
+            assertEquals(ids[i], index.productIdOf("SKU-\u00e9-" + i));
+            assertEquals("SKU-\u00e9-" + i, index.skuOf(ids[i]));
+        }
+    }
+
+    @Test
+    void matchesHashMapsUnderRandomChurn() {
+        SkuIndex index = new SkuIndex(16);
+        Map<UUID, String> skuById = new HashMap<>();
+        Map<String, UUID> idBySku = new HashMap<>();
+        UUID[] ids = new UUID[500];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = UUID.randomUUID();
+        }
+
+        // Enough removals and renames to force compacting rehashes
+        Random random = new Random(42);
+        for (int step = 0; step < 50_000; step++) {
+            UUID id = ids[random.nextInt(ids.length)];
+            if (random.nextInt(4) == 0) {
+                index.remove(id);
+                String sku = skuById.remove(id);
+                if (sku != null) {
+                    idBySku.remove(sku);
+                }
+            } else {
+                String sku = "SKU-" + random.nextInt(1_000);
+                index.put(id, sku);
+                String previousSku = skuById.put(id, sku);
+                if (previousSku != null) {
+                    idBySku.remove(previousSku);
+                }
+                UUID previousId = idBySku.put(sku, id);
+                if (previousId != null && !previousId.equals(id)) {
+                    skuById.remove(previousId);
+                }
+            }
+        }
+
+        assertEquals(skuById.size(), index.size());
+        for (UUID id : ids) {
+            assertEquals(skuById.get(id), index.skuOf(id));
+        }
+        for (int i = 0; i < 1_000; i++) {
+            assertEquals(idBySku.get("SKU-" + i), index.productIdOf("SKU-" + i));
+        }
+    }
+}
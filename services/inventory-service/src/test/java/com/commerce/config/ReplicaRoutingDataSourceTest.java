@@ -0,0 +1,93 @@
+package com.commerce.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Routes between two in-memory H2 databases standing in for a primary and its replica.
+ * Each database answers {@code SELECT name FROM node} with its own role.
+ */
+public class ReplicaRoutingDataSourceTest {
+
+    private final DataSource primary = node("primary");
+    private final DataSource replica = node("replica");
+
+    @Test
+    void readWriteTransactionsUsePrimary() {
+        Fixture fixture = new Fixture("SELECT 0");
+        fixture.monitor.check();
+
+        assertEquals("primary", fixture.currentNode(false));
+    }
+
+    @Test
+    void readOnlyTransactionsUseReplica() {
+        Fixture fixture = new Fixture("SELECT 0");
+        fixture.monitor.check();
+
+        assertEquals("replica", fixture.currentNode(true));
+    }
+
+    @Test
+    void readOnlyTransactionsFallBackWhenReplicaLags() {
+        Fixture fixture = new Fixture("SELECT 10");
+        fixture.monitor.check();
+
+        assertEquals("primary", fixture.currentNode(true));
+    }
+
+    @Test
+    void readOnlyTransactionsUsePrimaryUntilLagIsKnown() {
+        Fixture fixture = new Fixture("SELECT 0");
+
+        assertEquals("primary", fixture.currentNode(true));
+    }
+
+    @Test
+    void pinnedWorkUsesPrimary() {
+        Fixture fixture = new Fixture("SELECT 0");
+        fixture.monitor.check();
+
+        assertEquals("primary", ReplicaRoutingDataSource.onPrimary(() -> fixture.currentNode(true)));
+    }
+
+    private static DataSource node(String name) {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + "-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE node (name VARCHAR(20))");
+        jdbcTemplate.update("INSERT INTO node VALUES (?)", name);
+        return dataSource;
+    }
+
+    private class Fixture {
+        final ReplicaLagMonitor monitor;
+        final JdbcTemplate jdbcTemplate;
+        final DataSourceTransactionManager transactionManager;
+
+        Fixture(String lagQuery) {
+            SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+            monitor = new ReplicaLagMonitor(replica, lagQuery, Duration.ofSeconds(5), 1000, meterRegistry);
+            ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, replica, monitor, meterRegistry);
+            routing.afterPropertiesSet();
+            DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+            jdbcTemplate = new JdbcTemplate(dataSource);
+            transactionManager = new DataSourceTransactionManager(dataSource);
+        }
+
+        String currentNode(boolean readOnly) {
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            transaction.setReadOnly(readOnly);
+            return transaction.execute(status -> jdbcTemplate.queryForObject("SELECT name FROM node", String.class));
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.commerce.event;
+
+import com.commerce.config.KafkaConfig;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.serialization.Serializer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares bytes per event and events/sec of the JSON and Avro encodings, each with the
+ * reliable and throughput producer profiles, against an embedded broker.
+ * Run with {@code mvn test -Dbenchmark=true -Dtest=InventoryEventPublishingBenchmarkTest}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class InventoryEventPublishingBenchmarkTest {
+
+    private static final String TOPIC = "inventory-events-bench";
+    private static final int EVENTS = Integer.getInteger("benchmark.events", 100_000);
+
+    private static EmbeddedKafkaBroker broker;
+    private static List<InventoryEvent> events;
+
+    @BeforeAll
+    static void startBroker() {
+        broker = new EmbeddedKafkaKraftBroker(1, 3, TOPIC);
+        broker.afterPropertiesSet();
+
+        List<UUID> products = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            products.add(UUID.randomUUID());
+        }
+        events = new ArrayList<>(EVENTS);
+        for (int i = 0; i < EVENTS; i++) {
+            int quantity = 100 + i % 500;
+            int reserved = i % 50;
+            events.add(new InventoryEvent("STOCK_RESERVED", products.get(i % products.size()), "SKU-" + (i % 1_000),
+                    quantity, reserved, quantity - reserved, UUID.randomUUID()));
+        }
+    }
+
+    @AfterAll
+    static void stopBroker() {
+        broker.destroy();
+    }
+
+    @Test
+    public void compareEncodingsAndProfiles() throws Exception {
+        JsonSerializer<InventoryEvent> json = new JsonSerializer<>();
+        json.configure(Map.of(JsonSerializer.ADD_TYPE_INFO_HEADERS, false), false);
+        InventoryEventAvroSerializer avro = new InventoryEventAvroSerializer();
+
+        double jsonBytes = payloadBytesPerEvent(json);
+        double avroBytes = payloadBytesPerEvent(avro);
+
+        System.out.printf("%-8s %-11s %12s %14s %12s%n", "format", "profile", "payload B/ev", "wire B/ev", "events/sec");
+        for (String format : List.of("json", "avro")) {
+            double payload = "json".equals(format) ? jsonBytes : avroBytes;
+            for (String profile : List.of("reliable", "throughput")) {
+                Result result = publish(format, profile);
+                System.out.printf("%-8s %-11s %12.1f %14.1f %12.0f%n",
+                        format, profile, payload, result.wireBytesPerEvent(), result.eventsPerSecond());
+            }
+        }
+
+        // Avro payloads must round-trip and be substantially smaller than JSON
+        InventoryEvent decoded = new InventoryEventAvroDeserializer().deserialize(TOPIC, avro.serialize(TOPIC, events.get(0)));
+        assertEquals(events.get(0).getProductId(), decoded.getProductId());
+        assertEquals(events.get(0).getOrderId(), decoded.getOrderId());
+        assertTrue(avroBytes < jsonBytes / 2, "avro " + avroBytes + " B/event vs json " + jsonBytes);
+    }
+
+    private double payloadBytesPerEvent(Serializer<InventoryEvent> serializer) {
+        long total = 0;
+        for (InventoryEvent event : events) {
+            total += serializer.serialize(TOPIC, event).length;
+        }
+        return (double) total / events.size();
+    }
+
+    private record Result(double wireBytesPerEvent, double eventsPerSecond) {}
+
+    private Result publish(String format, String profile) {
+        Map<String, Object> props = KafkaConfig.producerProperties(broker.getBrokersAsString(), format);
+        if ("throughput".equals(profile)) {
+            KafkaConfig.applyThroughputProfile(props, 20, 131072, "lz4");
+        }
+
+        try (KafkaProducer<String, InventoryEvent> producer = new KafkaProducer<>(props)) {
+            long start = System.nanoTime();
+            for (InventoryEvent event : events) {
+                producer.send(new ProducerRecord<>(TOPIC, event.getProductId().toString(), event));
+            }
+            producer.flush();
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            double wireBytes = 0;
+            for (Map.Entry<MetricName, ? extends Metric> metric : producer.metrics().entrySet()) {
+                if ("producer-metrics".equals(metric.getKey().group())
+                        && "outgoing-byte-total".equals(metric.getKey().name())) {
+                    wireBytes = ((Number) metric.getValue().metricValue()).doubleValue();
+                }
+            }
+            return new Result(wireBytes / events.size(), events.size() / seconds);
+        }
+    }
+}
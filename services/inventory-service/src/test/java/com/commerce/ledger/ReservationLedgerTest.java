@@ -0,0 +1,123 @@
+package com.commerce.ledger;
+
+import com.commerce.service.StockLevel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Restarts the ledger on the same journal without writing behind, standing in for a crash, and
+ * checks that replay rebuilds the counters. The inventory tables live in an in-memory H2 database.
+ */
+public class ReservationLedgerTest {
+
+    private static final UUID PRODUCT = UUID.randomUUID();
+
+    @TempDir
+    Path directory;
+
+    private Path journalPath;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        DataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:ledger-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        jdbcTemplate.execute("CREATE TABLE products (id UUID PRIMARY KEY, sku VARCHAR(50))");
+        jdbcTemplate.execute("CREATE TABLE inventory (product_id UUID PRIMARY KEY, quantity INT, " +
+                             "reserved_quantity INT, version INT DEFAULT 0)");
+        jdbcTemplate.execute("CREATE TABLE reservation_ledger_checkpoint (id INT PRIMARY KEY, last_seq BIGINT)");
+        jdbcTemplate.update("INSERT INTO products VALUES (?, ?)", PRODUCT, "SKU-1");
+        jdbcTemplate.update("INSERT INTO inventory (product_id, quantity, reserved_quantity) VALUES (?, 100, 0)", PRODUCT);
+        journalPath = directory.resolve("reservation-ledger.journal");
+    }
+
+    @Test
+    void replaysJournalAfterRestart() throws IOException {
+        UUID order = UUID.randomUUID();
+        ReservationLedger ledger = start();
+        ledger.reserve(PRODUCT, 10, order);
+        ledger.reserve(PRODUCT, 5, null);
+        ledger.release(PRODUCT, 3, null);
+        ledger.confirm(PRODUCT, 4, order);
+        assertCounters(ledger.current(PRODUCT).orElseThrow(), 96, 8);
+
+        assertCounters(start().current(PRODUCT).orElseThrow(), 96, 8);
+    }
+
+    @Test
+    void journalsOrderIds() throws IOException {
+        UUID order = UUID.randomUUID();
+        ReservationLedger ledger = start();
+        ledger.reserve(PRODUCT, 10, order);
+        ledger.compensate(PRODUCT, 0, -10, order);
+
+        List<JournalRecord> records = ReservationJournal.readAll(journalPath);
+        assertEquals(2, records.size());
+        assertEquals(JournalRecord.RESERVE, records.get(0).type());
+        assertEquals(order, records.get(0).orderId());
+        assertEquals(JournalRecord.COMPENSATE, records.get(1).type());
+        assertEquals(order, records.get(1).orderId());
+    }
+
+    @Test
+    void skipsRecordsCoveredByTheCheckpoint() throws IOException {
+        ReservationLedger ledger = start();
+        ledger.reserve(PRODUCT, 10, null);
+        ledger.confirm(PRODUCT, 4, null);
+        ledger.reserve(PRODUCT, 5, null);
+
+        // As if the first two records had been written behind before the crash
+        jdbcTemplate.update("UPDATE inventory SET quantity = 96, reserved_quantity = 6 WHERE product_id = ?", PRODUCT);
+        long firstTwo = ReservationJournal.readAll(journalPath).get(1).seq();
+        jdbcTemplate.update("INSERT INTO reservation_ledger_checkpoint VALUES (1, ?)", firstTwo);
+
+        assertCounters(start().current(PRODUCT).orElseThrow(), 96, 11);
+    }
+
+    @Test
+    void dropsATornTailAndKeepsAppending() throws IOException {
+        ReservationLedger ledger = start();
+        ledger.reserve(PRODUCT, 10, null);
+        // A record cut short by the crash
+        Files.write(journalPath, new byte[JournalRecord.SIZE / 2], StandardOpenOption.APPEND);
+
+        ReservationLedger restarted = start();
+        assertCounters(restarted.current(PRODUCT).orElseThrow(), 100, 10);
+        restarted.reserve(PRODUCT, 5, null);
+
+        assertCounters(start().current(PRODUCT).orElseThrow(), 100, 15);
+        List<JournalRecord> records = ReservationJournal.readAll(journalPath);
+        assertEquals(2, records.size());
+        assertTrue(records.get(1).seq() > records.get(0).seq());
+    }
+
+    private ReservationLedger start() throws IOException {
+        ReservationLedger ledger = new ReservationLedger(jdbcTemplate, transactionTemplate, journalPath, 1 << 20);
+        ledger.recover();
+        return ledger;
+    }
+
+    private static void assertCounters(StockLevel level, int quantity, int reservedQuantity) {
+        assertEquals(quantity, level.quantity());
+        assertEquals(reservedQuantity, level.reservedQuantity());
+    }
+}
@@ -0,0 +1,145 @@
+package com.commerce.search;
+
+import com.commerce.dto.ProductSearchHit;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Compares the in-memory search index with the LIKE '%term%' query it replaces,
+ * on a synthetic catalog (1M products by default) held in an in-memory H2 database.
+ * Run with {@code mvn test -Dbenchmark=true -Dtest=ProductSearchBenchmarkTest}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class ProductSearchBenchmarkTest {
+
+    private static final int PRODUCTS = Integer.getInteger("benchmark.products", 1_000_000);
+    private static final String[] ADJECTIVES = {"wireless", "premium", "compact", "gaming", "organic", "ergonomic",
+            "portable", "smart", "classic", "ultra", "mechanical", "waterproof"};
+    private static final String[] NOUNS = {"laptop", "headphones", "keyboard", "mouse", "coffee", "shirt",
+            "backpack", "monitor", "speaker", "charger", "notebook", "kettle", "lamp", "camera"};
+    private static final String[] CATEGORIES = {"Electronics", "Books", "Clothing", "Food", "Home"};
+    private static final int LIMIT = 20;
+    private static final int RUNS = Integer.getInteger("benchmark.runs", 5);
+    private static final String[] QUERIES = {"keyboard", "wireless mouse", "lap", "ergonomic chair", "premium coffee"};
+
+    private static Connection connection;
+    private static ProductSearchIndex index;
+
+    @BeforeAll
+    static void buildCatalog() throws Exception {
+        connection = DriverManager.getConnection("jdbc:h2:mem:search-bench;MODE=PostgreSQL", "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE products (id UUID PRIMARY KEY, sku VARCHAR(100), name VARCHAR(255), " +
+                              "description TEXT, category VARCHAR(100))");
+        }
+
+        Random random = new Random(42);
+        List<ProductDocument> documents = new ArrayList<>(PRODUCTS);
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO products VALUES (?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < PRODUCTS; i++) {
+                String adjective = ADJECTIVES[random.nextInt(ADJECTIVES.length)];
+                String noun = NOUNS[random.nextInt(NOUNS.length)];
+                ProductDocument document = new ProductDocument(UUID.randomUUID(), "SKU-" + i,
+                        adjective + " " + noun + " " + i,
+                        "A " + ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + noun + " for everyday use",
+                        CATEGORIES[random.nextInt(CATEGORIES.length)]);
+                documents.add(document);
+
+                insert.setObject(1, document.productId());
+                insert.setString(2, document.sku());
+                insert.setString(3, document.name());
+                insert.setString(4, document.description());
+                insert.setString(5, document.category());
+                insert.addBatch();
+                if (i % 10_000 == 9_999) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+
+        index = new ProductSearchIndex(2, 256);
+        long start = System.nanoTime();
+        index.replaceAll(documents);
+        System.out.printf("Indexed %d products in %d ms%n", PRODUCTS, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @AfterAll
+    static void closeDatabase() throws Exception {
+        connection.close();
+    }
+
+    @Test
+    public void compareWithLikeQuery() throws Exception {
+        System.out.printf("%-18s %12s %12s%n", "query", "LIKE ms", "index ms");
+        for (String query : QUERIES) {
+            // Both sides warmed, then averaged over the same number of runs
+            int likeRows = likeSearch(query);
+            List<ProductSearchHit> hits = index.search(query, null, LIMIT);
+
+            long start = System.nanoTime();
+            for (int run = 0; run < RUNS; run++) {
+                likeSearch(query);
+            }
+            double likeMs = (System.nanoTime() - start) / 1e6 / RUNS;
+
+            start = System.nanoTime();
+            for (int run = 0; run < RUNS; run++) {
+                index.search(query, null, LIMIT);
+            }
+            double indexMs = (System.nanoTime() - start) / 1e6 / RUNS;
+
+            System.out.printf("%-18s %12.2f %12.2f   (LIKE rows %d, index hits %d)%n",
+                    query, likeMs, indexMs, likeRows, hits.size());
+        }
+
+        assertFalse(index.search("keyboard", "Electronics", LIMIT).isEmpty());
+    }
+
+    /**
+     * The same work as the index: every word must match name, description or SKU, all matches are
+     * ranked (here by name) and the top {@code LIMIT} returned.
+     */
+    private static int likeSearch(String query) throws Exception {
+        String[] words = query.toLowerCase().split("\\s+");
+        StringBuilder sql = new StringBuilder("SELECT id FROM products WHERE ");
+        for (int i = 0; i < words.length; i++) {
+            if (i > 0) {
+                sql.append(" AND ");
+            }
+            sql.append("(LOWER(name) LIKE ? OR LOWER(description) LIKE ? OR LOWER(sku) LIKE ?)");
+        }
+        sql.append(" ORDER BY name LIMIT ?");
+
+        try (PreparedStatement statement = connection.prepareStatement(sql.toString())) {
+            int parameter = 1;
+            for (String word : words) {
+                for (int column = 0; column < 3; column++) {
+                    statement.setString(parameter++, "%" + word + "%");
+                }
+            }
+            statement.setInt(parameter, LIMIT);
+            int rows = 0;
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    rows++;
+                }
+            }
+            return rows;
+        }
+    }
+}